@@ -0,0 +1,15 @@
+#!/bin/bash
+
+# Builds the backend and the benchmarks, runs them and writes the results as JSON
+# to results/jmh-<commit>.json. Extra arguments are passed to JMH, e.g. a benchmark
+# name filter: ./run.sh JwtAuthenticationFilterBenchmark
+set -e
+cd "$(dirname "$0")"
+
+(cd .. && mvn -q install -DskipTests)
+mvn -q package
+
+mkdir -p results
+COMMIT=$(git rev-parse --short HEAD 2>/dev/null || echo local)
+java -jar target/benchmarks.jar -rf json -rff "results/jmh-${COMMIT}.json" "$@"
+echo "Results written to results/jmh-${COMMIT}.json"
@@ -0,0 +1,106 @@
+package com.tenxcards.flashcards.benchmarks;
+
+import com.tenxcards.flashcards.entity.Flashcard;
+import com.tenxcards.flashcards.entity.FlashcardSource;
+import com.tenxcards.flashcards.entity.Generation;
+import com.tenxcards.flashcards.entity.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Representative inputs shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    static final String JWT_SECRET = "mySecretKey1234567890123456789012345678901234567890";
+    static final int JWT_EXPIRATION_MS = 86400000;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * A model answer in the requested format: a JSON array of {front, back}.
+     */
+    static String jsonResponse(int cards) {
+        StringBuilder sb = new StringBuilder("[\n");
+        for (int i = 0; i < cards; i++) {
+            if (i > 0) {
+                sb.append(",\n");
+            }
+            sb.append("  {\"front\": \"").append(front(i)).append("\", \"back\": \"").append(back(i)).append("\"}");
+        }
+        return sb.append("\n]").toString();
+    }
+
+    /**
+     * A model answer in the FRONT:/BACK: fallback format, cards separated by '---'.
+     */
+    static String frontBackResponse(int cards) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < cards; i++) {
+            if (i > 0) {
+                sb.append("\n---\n");
+            }
+            sb.append("FRONT: ").append(front(i)).append("\nBACK: ").append(back(i));
+        }
+        return sb.toString();
+    }
+
+    static String sourceText(int length) {
+        String sentence = "Quantum computers use qubits that can exist in superposition, which lets them explore many states at once. ";
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            sb.append(sentence);
+        }
+        return sb.substring(0, length);
+    }
+
+    static User user() {
+        User user = new User();
+        user.setId(UUID.fromString("7f1c2a3b-4d5e-4f60-8a7b-9c0d1e2f3a4b"));
+        user.setEmail("bench@example.com");
+        return user;
+    }
+
+    static Generation generation(User user) {
+        Generation generation = new Generation("Generation 2024-01-01 12:00", user);
+        generation.setId(42L);
+        generation.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+        generation.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 12, 5));
+        generation.setSourceTextLength(5000);
+        generation.setGenerationDuration(Duration.ofMillis(4200));
+        generation.setModel("gpt-4o-mini");
+        generation.setSourceTextHash("0".repeat(64));
+        return generation;
+    }
+
+    static List<Flashcard> flashcards(User user, Generation generation, int count) {
+        List<Flashcard> flashcards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Flashcard flashcard = new Flashcard();
+            flashcard.setId(1000L + i);
+            flashcard.setFront(front(i));
+            flashcard.setBack(back(i));
+            flashcard.setSource(i % 3 == 0 ? FlashcardSource.AI_EDITED : FlashcardSource.AI_FULL);
+            flashcard.setDisplayOrder(i + 1);
+            flashcard.setUser(user);
+            flashcard.setGeneration(generation);
+            flashcard.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+            flashcard.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 12, 5));
+            flashcards.add(flashcard);
+        }
+        return flashcards;
+    }
+
+    private static String front(int i) {
+        return "What is key concept number " + i + " of quantum computing?";
+    }
+
+    private static String back(int i) {
+        return "Concept " + i + " explains how qubits, superposition and entanglement let quantum computers solve certain problems faster.";
+    }
+}
@@ -0,0 +1,60 @@
+package com.tenxcards.flashcards.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Prints the score change per benchmark between two JMH JSON result files,
+ * e.g. results of two commits written by run.sh:
+ *
+ *   java -cp target/benchmarks.jar com.tenxcards.flashcards.benchmarks.CompareResults \
+ *       results/jmh-abc1234.json results/jmh-def5678.json
+ */
+public class CompareResults {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <candidate.json>");
+            System.exit(1);
+        }
+        Map<String, JsonNode> baseline = load(args[0]);
+        Map<String, JsonNode> candidate = load(args[1]);
+
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Candidate", "Change");
+        for (Map.Entry<String, JsonNode> entry : candidate.entrySet()) {
+            JsonNode after = entry.getValue().get("primaryMetric");
+            JsonNode before = baseline.containsKey(entry.getKey()) ? baseline.get(entry.getKey()).get("primaryMetric") : null;
+            String unit = after.get("scoreUnit").asText();
+            double afterScore = after.get("score").asDouble();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14s %9s%n", entry.getKey(), "-", format(afterScore, unit), "new");
+                continue;
+            }
+            double beforeScore = before.get("score").asDouble();
+            double change = (afterScore - beforeScore) / beforeScore * 100;
+            System.out.printf("%-90s %14s %14s %+8.1f%%%n", entry.getKey(), format(beforeScore, unit), format(afterScore, unit), change);
+        }
+    }
+
+    private static Map<String, JsonNode> load(String path) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(new File(path))) {
+            StringBuilder key = new StringBuilder(result.get("benchmark").asText());
+            JsonNode params = result.get("params");
+            if (params != null) {
+                params.fields().forEachRemaining(param -> key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static String format(double score, String unit) {
+        return String.format("%.3f %s", score, unit);
+    }
+}
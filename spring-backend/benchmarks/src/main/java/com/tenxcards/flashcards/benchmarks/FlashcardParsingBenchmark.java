@@ -0,0 +1,68 @@
+package com.tenxcards.flashcards.benchmarks;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import com.tenxcards.flashcards.service.ai.FlashcardPrompt;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the model's answer as done by OpenAIService.parseFlashcards and
+ * OpenRouterService (both delegate to FlashcardPrompt.parseFlashcards): the JSON
+ * path, JSON wrapped in prose and a code fence, and the FRONT:/BACK: fallback.
+ * The legacy* methods run the previous implementation as a baseline; run with
+ * {@code -prof gc} to compare allocation per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlashcardParsingBenchmark {
+
+    @Param({"10"})
+    private int cards;
+
+    private String jsonResponse;
+    private String fencedJsonResponse;
+    private String frontBackResponse;
+
+    @Setup
+    public void setUp() {
+        jsonResponse = BenchmarkData.jsonResponse(cards);
+        fencedJsonResponse = "Here are your flashcards:\n```json\n" + jsonResponse + "\n```\n";
+        frontBackResponse = BenchmarkData.frontBackResponse(cards);
+    }
+
+    @Benchmark
+    public List<FlashcardProposalDTO> parseJson() {
+        return FlashcardPrompt.parseFlashcards(jsonResponse);
+    }
+
+    @Benchmark
+    public List<FlashcardProposalDTO> parseFencedJson() {
+        return FlashcardPrompt.parseFlashcards(fencedJsonResponse);
+    }
+
+    @Benchmark
+    public List<FlashcardProposalDTO> parseFrontBackFallback() {
+        return FlashcardPrompt.parseFlashcards(frontBackResponse);
+    }
+
+    @Benchmark
+    public List<FlashcardProposalDTO> legacyParseJson() {
+        return LegacyFlashcardParser.parse(jsonResponse);
+    }
+
+    @Benchmark
+    public List<FlashcardProposalDTO> legacyParseFencedJson() {
+        return LegacyFlashcardParser.parse(fencedJsonResponse);
+    }
+
+    @Benchmark
+    public List<FlashcardProposalDTO> legacyParseFrontBackFallback() {
+        return LegacyFlashcardParser.parse(frontBackResponse);
+    }
+}
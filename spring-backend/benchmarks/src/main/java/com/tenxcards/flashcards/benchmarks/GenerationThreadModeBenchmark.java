@@ -0,0 +1,163 @@
+package com.tenxcards.flashcards.benchmarks;
+
+import com.tenxcards.flashcards.config.VirtualThreadExecutor;
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import com.tenxcards.flashcards.service.ai.CapacityWait;
+import com.tenxcards.flashcards.service.ai.FlashcardGenerator;
+import com.tenxcards.flashcards.service.ai.FlashcardGeneratorRegistry;
+import com.tenxcards.flashcards.service.ai.LlmMetrics;
+import com.tenxcards.flashcards.service.ai.LocalFlashcardGenerator;
+import com.tenxcards.flashcards.service.ai.ProviderUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A burst of 'requests' concurrent generation jobs against a provider that blocks
+ * for 'latencyMs', run as the application runs them: through the registry's
+ * managed generator (circuit breaker and a concurrency limit of 'maxConcurrency'),
+ * waiting for a provider slot like completeGeneration does, on the platform
+ * generation pool (generation.executor.max-size threads) or on virtual threads as
+ * in the virtual-threads profile. The score is the time until the whole burst is
+ * answered; the peak number of provider calls in flight and the number of failed
+ * jobs are printed after each trial. Both modes are bounded by the provider's
+ * limit, so the burst takes about requests / maxConcurrency * latencyMs either way.
+ * The virtual mode needs a Java 21 JVM.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GenerationThreadModeBenchmark {
+
+    private static final int PLATFORM_THREADS = 16;
+    private static final long CAPACITY_WAIT_MS = 30000;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"200"})
+    public int requests;
+
+    @Param({"100"})
+    public long latencyMs;
+
+    @Param({"10"})
+    public int maxConcurrency;
+
+    private TaskExecutor executor;
+    private ThreadPoolTaskExecutor platformPool;
+    private FlashcardGeneratorRegistry registry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        registry = registry(provider());
+        if ("virtual".equals(mode)) {
+            executor = new VirtualThreadExecutor("bench-", requests * 2, registry.getActive().getMaxConcurrency(), 30);
+        } else {
+            platformPool = new ThreadPoolTaskExecutor();
+            platformPool.setCorePoolSize(PLATFORM_THREADS);
+            platformPool.setMaxPoolSize(PLATFORM_THREADS);
+            platformPool.setQueueCapacity(requests);
+            platformPool.initialize();
+            executor = platformPool;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.println("\npeak provider calls in flight (" + mode + "): " + peakInFlight.get()
+                + ", failed jobs: " + failed.get());
+        if (platformPool != null) {
+            platformPool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public int burst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(requests);
+        FlashcardGenerator generator = registry.getActive();
+        for (int i = 0; i < requests; i++) {
+            executor.execute(() -> {
+                try {
+                    CapacityWait.call(() -> generator.generateFlashcards("source text"), CAPACITY_WAIT_MS);
+                } catch (ProviderUnavailableException e) {
+                    failed.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return failed.get();
+    }
+
+    /**
+     * The local stand-in with the configured latency and limit, counting the calls
+     * the concurrency limit actually let through.
+     */
+    private FlashcardGenerator provider() {
+        LocalFlashcardGenerator local = new LocalFlashcardGenerator();
+        ReflectionTestUtils.setField(local, "latencyMs", latencyMs);
+        ReflectionTestUtils.setField(local, "maxConcurrency", maxConcurrency);
+        return new FlashcardGenerator() {
+            @Override
+            public String getName() {
+                return local.getName();
+            }
+
+            @Override
+            public String getModel() {
+                return local.getModel();
+            }
+
+            @Override
+            public int getMaxConcurrency() {
+                return local.getMaxConcurrency();
+            }
+
+            @Override
+            public List<FlashcardProposalDTO> generateFlashcards(String text) {
+                peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    return local.generateFlashcards(text);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        };
+    }
+
+    /**
+     * Registry with the breaker and limiter settings of application.yml.
+     */
+    private static FlashcardGeneratorRegistry registry(FlashcardGenerator provider) {
+        FlashcardGeneratorRegistry registry = new FlashcardGeneratorRegistry();
+        ReflectionTestUtils.setField(registry, "providers", List.of(provider));
+        ReflectionTestUtils.setField(registry, "llmMetrics", new LlmMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(registry, "activeProvider", provider.getName());
+        ReflectionTestUtils.setField(registry, "breakerWindowSize", 20);
+        ReflectionTestUtils.setField(registry, "breakerMinCalls", 10);
+        ReflectionTestUtils.setField(registry, "breakerFailureRateThreshold", 0.5);
+        ReflectionTestUtils.setField(registry, "breakerOpenDurationSeconds", 30L);
+        ReflectionTestUtils.setField(registry, "breakerHalfOpenTrials", 1);
+        ReflectionTestUtils.setField(registry, "limiterMinLimit", 1);
+        ReflectionTestUtils.setField(registry, "limiterLatencyThresholdMs", 20000L);
+        ReflectionTestUtils.setField(registry, "limiterBackoffRatio", 0.9);
+        ReflectionTestUtils.setField(registry, "limiterRetryAfterSeconds", 1L);
+        ReflectionTestUtils.invokeMethod(registry, "registerProviders");
+        return registry;
+    }
+}
@@ -0,0 +1,134 @@
+package com.tenxcards.flashcards.benchmarks;
+
+import com.tenxcards.flashcards.entity.User;
+import com.tenxcards.flashcards.repository.UserRepository;
+import com.tenxcards.flashcards.security.JwtAuthenticationFilter;
+import com.tenxcards.flashcards.security.JwtTokenProvider;
+import com.tenxcards.flashcards.service.UserService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request: token verification and principal lookup
+ * in JwtAuthenticationFilter, with and without the verified-token cache, and the
+ * previous validate-then-extract implementation for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private JwtTokenProvider cachedProvider;
+    private JwtTokenProvider uncachedProvider;
+    private String token;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setId(userId);
+        user.setEmail("bench@example.com");
+
+        cachedProvider = new JwtTokenProvider(BenchmarkData.JWT_SECRET, BenchmarkData.JWT_EXPIRATION_MS, true, 10000);
+        uncachedProvider = new JwtTokenProvider(BenchmarkData.JWT_SECRET, BenchmarkData.JWT_EXPIRATION_MS, false, 0);
+        UserService userService = userService(user);
+        cachedFilter = filter(cachedProvider, userService);
+        uncachedFilter = filter(uncachedProvider, userService);
+
+        token = cachedProvider.generateToken(userId.toString(), user.getEmail(), "");
+        request = new MockHttpServletRequest("GET", "/api/generations");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object filterWithVerifiedTokenCache() throws Exception {
+        return doFilter(cachedFilter);
+    }
+
+    @Benchmark
+    public Object filterWithoutVerifiedTokenCache() throws Exception {
+        return doFilter(uncachedFilter);
+    }
+
+    @Benchmark
+    public Optional<Claims> parseValidTokenCached() {
+        return cachedProvider.parseValidToken(token);
+    }
+
+    @Benchmark
+    public Optional<Claims> parseValidTokenUncached() {
+        return uncachedProvider.parseValidToken(token);
+    }
+
+    /**
+     * The token handling before parse-once validation: the key was derived and
+     * the signature verified once in validateToken and again in getUserIdFromToken.
+     */
+    @Benchmark
+    public String legacyValidateThenExtract() {
+        Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(BenchmarkData.JWT_SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token);
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(BenchmarkData.JWT_SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    private Object doFilter(JwtAuthenticationFilter filter) throws Exception {
+        filter.doFilter(request, response, new MockFilterChain());
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    private static JwtAuthenticationFilter filter(JwtTokenProvider tokenProvider, UserService userService) {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(filter, "userService", userService);
+        ReflectionTestUtils.setField(filter, "meterRegistry", new SimpleMeterRegistry());
+        return filter;
+    }
+
+    /**
+     * UserService over an in-memory repository, so the benchmark measures the
+     * filter rather than a database.
+     */
+    private static UserService userService(User user) {
+        UserRepository repository = (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> method.getName().equals("findById") ? Optional.of(user) : null);
+        UserService userService = new UserService();
+        ReflectionTestUtils.setField(userService, "userRepository", repository);
+        ReflectionTestUtils.setField(userService, "principalCacheEnabled", true);
+        ReflectionTestUtils.setField(userService, "principalCacheMaxSize", 10000L);
+        ReflectionTestUtils.setField(userService, "principalCacheTtlSeconds", 300L);
+        ReflectionTestUtils.invokeMethod(userService, "initPrincipalCache");
+        return userService;
+    }
+}
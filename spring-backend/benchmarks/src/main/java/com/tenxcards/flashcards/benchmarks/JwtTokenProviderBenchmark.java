@@ -0,0 +1,38 @@
+package com.tenxcards.flashcards.benchmarks;
+
+import com.tenxcards.flashcards.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing at login and signature verification without the verified-token
+ * cache (the cost of the first request made with a token).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider(BenchmarkData.JWT_SECRET, BenchmarkData.JWT_EXPIRATION_MS, false, 0);
+        token = tokenProvider.generateToken("7f1c2a3b-4d5e-4f60-8a7b-9c0d1e2f3a4b", "bench@example.com", "");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken("7f1c2a3b-4d5e-4f60-8a7b-9c0d1e2f3a4b", "bench@example.com", "");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+}
@@ -0,0 +1,48 @@
+package com.tenxcards.flashcards.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The parser FlashcardPrompt.parseFlashcards used before FlashcardProposalParser:
+ * a new ObjectMapper per call and two Patterns compiled per card in the fallback.
+ * Kept only as the baseline for FlashcardParsingBenchmark.
+ */
+final class LegacyFlashcardParser {
+
+    private LegacyFlashcardParser() {
+    }
+
+    static List<FlashcardProposalDTO> parse(String responseText) {
+        List<FlashcardProposalDTO> flashcards = new ArrayList<>();
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            return mapper.readValue(responseText, new TypeReference<List<FlashcardProposalDTO>>() {});
+        } catch (Exception e) {
+            for (String card : responseText.split("---")) {
+                card = card.trim();
+                if (card.isEmpty()) continue;
+
+                Pattern frontPattern = Pattern.compile("FRONT:\\s*(.+?)(?=BACK:|$)", Pattern.DOTALL);
+                Pattern backPattern = Pattern.compile("BACK:\\s*(.+?)(?=FRONT:|$)", Pattern.DOTALL);
+                Matcher frontMatcher = frontPattern.matcher(card);
+                Matcher backMatcher = backPattern.matcher(card);
+
+                if (frontMatcher.find() && backMatcher.find()) {
+                    String front = frontMatcher.group(1).trim();
+                    String back = backMatcher.group(1).trim();
+                    if (!front.isEmpty() && !back.isEmpty()) {
+                        flashcards.add(new FlashcardProposalDTO(front, back));
+                    }
+                }
+            }
+        }
+        return flashcards;
+    }
+}
@@ -0,0 +1,85 @@
+package com.tenxcards.flashcards.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenxcards.flashcards.controller.ResponseMapper;
+import com.tenxcards.flashcards.dto.ApiResponse;
+import com.tenxcards.flashcards.dto.FlashcardDTO;
+import com.tenxcards.flashcards.entity.Flashcard;
+import com.tenxcards.flashcards.entity.Generation;
+import com.tenxcards.flashcards.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and serializing the generation detail response: entity to DTO/map
+ * conversion and Jackson serialization of the ApiResponse envelope, with an
+ * ObjectMapper configured like the one Spring MVC uses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseMappingBenchmark {
+
+    @Param({"50"})
+    private int cards;
+
+    private ObjectMapper objectMapper;
+    private Generation generation;
+    private List<Flashcard> flashcards;
+    private ApiResponse<Map<String, Object>> detailResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        User user = BenchmarkData.user();
+        generation = BenchmarkData.generation(user);
+        flashcards = BenchmarkData.flashcards(user, generation, cards);
+        detailResponse = buildDetail();
+    }
+
+    @Benchmark
+    public FlashcardDTO convertFlashcardToDTO() {
+        return ResponseMapper.toFlashcardDTO(flashcards.get(0));
+    }
+
+    @Benchmark
+    public Map<String, Object> convertGenerationToMap() {
+        return ResponseMapper.toGenerationMap(generation);
+    }
+
+    @Benchmark
+    public ApiResponse<Map<String, Object>> buildGenerationDetail() {
+        return buildDetail();
+    }
+
+    @Benchmark
+    public byte[] serializeGenerationDetail() throws Exception {
+        return objectMapper.writeValueAsBytes(detailResponse);
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializeGenerationDetail() throws Exception {
+        return objectMapper.writeValueAsBytes(buildDetail());
+    }
+
+    /**
+     * Same shape as GET /api/generations/{id}.
+     */
+    private ApiResponse<Map<String, Object>> buildDetail() {
+        Map<String, Object> data = ResponseMapper.toGenerationMap(generation);
+        List<FlashcardDTO> dtos = new ArrayList<>(flashcards.size());
+        for (Flashcard flashcard : flashcards) {
+            dtos.add(ResponseMapper.toFlashcardDTO(flashcard));
+        }
+        data.put("flashcards", dtos);
+        return ApiResponse.success(data);
+    }
+}
@@ -0,0 +1,34 @@
+package com.tenxcards.flashcards.benchmarks;
+
+import com.tenxcards.flashcards.service.GenerationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SHA-256 of the source text, computed for every generation request (and per
+ * chunk for chunked generations) to key the result cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SourceTextHashBenchmark {
+
+    @Param({"1000", "10000", "200000"})
+    private int length;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        text = BenchmarkData.sourceText(length);
+    }
+
+    @Benchmark
+    public String calculateSHA256() {
+        return GenerationService.calculateSHA256(text);
+    }
+}
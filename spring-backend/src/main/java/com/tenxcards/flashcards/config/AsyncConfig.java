@@ -0,0 +1,99 @@
+package com.tenxcards.flashcards.config;
+
+import com.tenxcards.flashcards.service.ai.FlashcardGeneratorRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors for work that must not run on Tomcat request threads.
+ * LLM calls for generation jobs run on a bounded pool so that a burst of
+ * generation requests queues here instead of exhausting the servlet pool.
+ */
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    @Value("${generation.executor.core-size:4}")
+    private int corePoolSize;
+
+    @Value("${generation.executor.max-size:16}")
+    private int maxPoolSize;
+
+    @Value("${generation.executor.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${generation.executor.virtual-max-in-flight:1000}")
+    private int virtualMaxInFlight;
+
+    @Value("${generation.chunking.executor.pool-size:16}")
+    private int chunkPoolSize;
+
+    @Value("${generation.chunking.executor.queue-capacity:100}")
+    private int chunkQueueCapacity;
+
+    @Value("${ai.routing.executor.pool-size:32}")
+    private int hedgePoolSize;
+
+    @Value("${ai.routing.executor.queue-capacity:100}")
+    private int hedgeQueueCapacity;
+
+    /**
+     * With virtual threads enabled (spring.threads.virtual.enabled on Java 21) each
+     * generation gets its own virtual thread, up to virtual-max-in-flight at a time;
+     * a blocked provider call then no longer holds one of max-size platform threads.
+     * Only as many jobs run as the active provider admits; the rest wait for a slot
+     * instead of being refused by its concurrency limit.
+     */
+    @Bean(name = "generationExecutor")
+    public TaskExecutor generationExecutor(Environment environment, FlashcardGeneratorRegistry generatorRegistry) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            int maxRunning = Math.min(virtualMaxInFlight, generatorRegistry.getActive().getMaxConcurrency());
+            return new VirtualThreadExecutor("generation-", virtualMaxInFlight, maxRunning, 30);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("generation-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs the per-chunk provider calls of chunked generations. Kept apart from
+     * generationExecutor so a chunked job never waits on its own pool.
+     */
+    @Bean(name = "chunkExecutor")
+    public ThreadPoolTaskExecutor chunkExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(chunkPoolSize);
+        executor.setMaxPoolSize(chunkPoolSize);
+        executor.setQueueCapacity(chunkQueueCapacity);
+        executor.setThreadNamePrefix("chunk-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs the primary and hedged provider calls of the routing provider; the
+     * calling thread only waits for the first successful one.
+     */
+    @Bean(name = "hedgeExecutor")
+    public ThreadPoolTaskExecutor hedgeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hedgePoolSize);
+        executor.setMaxPoolSize(hedgePoolSize);
+        executor.setQueueCapacity(hedgeQueueCapacity);
+        executor.setThreadNamePrefix("hedge-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,134 @@
+package com.tenxcards.flashcards.config;
+
+import com.tenxcards.flashcards.service.DuplicateFlashcardIndex;
+import com.tenxcards.flashcards.service.GenerationResultCache;
+import com.tenxcards.flashcards.service.InFlightGenerations;
+import com.tenxcards.flashcards.service.ReviewQueueCache;
+import com.tenxcards.flashcards.service.SupabaseAuthClient;
+import com.tenxcards.flashcards.service.UserService;
+import com.tenxcards.flashcards.service.ratelimit.RateLimitService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the in-process counters shown at /api/metrics, and the pools of the
+ * application's own executors, as Micrometer meters so they reach /actuator/prometheus.
+ * HTTP server, repository, Hikari and JVM meters are bound by Spring Boot itself.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder componentStatsMetrics(GenerationResultCache generationResultCache,
+                                             InFlightGenerations inFlightGenerations,
+                                             DuplicateFlashcardIndex duplicateFlashcardIndex,
+                                             UserService userService,
+                                             ReviewQueueCache reviewQueueCache,
+                                             SupabaseAuthClient supabaseAuthClient,
+                                             RateLimitService rateLimitService) {
+        return registry -> {
+            bindStats(registry, "generation_cache", generationResultCache::getStats);
+            bindStats(registry, "generation_in_flight", inFlightGenerations::getStats);
+            bindStats(registry, "duplicate_index", duplicateFlashcardIndex::getStats);
+            bindStats(registry, "principal_cache", userService::getPrincipalCacheStats);
+            bindStats(registry, "review_queue", reviewQueueCache::getStats);
+            bindStats(registry, "supabase_auth", supabaseAuthClient::getStats);
+            bindStats(registry, "rate_limit", rateLimitService::getStats);
+        };
+    }
+
+    @Bean
+    public MeterBinder executorMetrics(@Qualifier("generationExecutor") TaskExecutor generationExecutor,
+                                       @Qualifier("chunkExecutor") ThreadPoolTaskExecutor chunkExecutor,
+                                       @Qualifier("hedgeExecutor") ThreadPoolTaskExecutor hedgeExecutor) {
+        return registry -> {
+            bindExecutor(registry, generationExecutor, "generation");
+            bindExecutor(registry, chunkExecutor, "chunk");
+            bindExecutor(registry, hedgeExecutor, "hedge");
+        };
+    }
+
+    /**
+     * Pool meters for a platform-thread executor; accepted, running, peak and
+     * maximum task counts for a virtual-thread one.
+     */
+    static void bindExecutor(MeterRegistry registry, TaskExecutor executor, String name) {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            new ExecutorServiceMetrics(pool.getThreadPoolExecutor(), name, Tags.empty()).bindTo(registry);
+        } else if (executor instanceof VirtualThreadExecutor virtual) {
+            Gauge.builder("executor.virtual.active", virtual, VirtualThreadExecutor::getInFlight)
+                    .tag("name", name).register(registry);
+            Gauge.builder("executor.virtual.running", virtual, VirtualThreadExecutor::getRunning)
+                    .tag("name", name).register(registry);
+            Gauge.builder("executor.virtual.peak", virtual, VirtualThreadExecutor::getPeakInFlight)
+                    .tag("name", name).register(registry);
+            Gauge.builder("executor.virtual.max", virtual, VirtualThreadExecutor::getMaxInFlight)
+                    .tag("name", name).register(registry);
+        }
+    }
+
+    /**
+     * One gauge per numeric (or boolean) entry of the stats map, named
+     * flashcards.&lt;component&gt;.&lt;key&gt;. Keys are taken from the map at bind time.
+     * The gauges share one snapshot of the map per scrape, and hold it strongly:
+     * nothing else references it, and a weakly held gauge state reads NaN once collected.
+     */
+    static void bindStats(MeterRegistry registry, String component, Supplier<Map<String, Object>> stats) {
+        StatsSnapshot snapshot = new StatsSnapshot(stats);
+        snapshot.get().forEach((key, value) -> {
+            if (value instanceof Number || value instanceof Boolean) {
+                Gauge.builder("flashcards." + component + "." + key, snapshot, s -> toDouble(s.get().get(key)))
+                        .strongReference(true)
+                        .register(registry);
+            }
+        });
+    }
+
+    private static double toDouble(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof Boolean flag) {
+            return flag ? 1 : 0;
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * The stats map as last read, reused for the gauges read within the same
+     * scrape instead of building the map once per key.
+     */
+    static final class StatsSnapshot {
+
+        private static final long MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+        private final Supplier<Map<String, Object>> stats;
+        private Map<String, Object> values;
+        private long readAtNanos;
+
+        StatsSnapshot(Supplier<Map<String, Object>> stats) {
+            this.stats = stats;
+        }
+
+        synchronized Map<String, Object> get() {
+            long now = System.nanoTime();
+            if (values == null || now - readAtNanos > MAX_AGE_NANOS) {
+                values = stats.get();
+                readAtNanos = now;
+            }
+            return values;
+        }
+    }
+}
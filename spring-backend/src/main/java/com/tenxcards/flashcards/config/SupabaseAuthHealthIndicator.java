@@ -0,0 +1,43 @@
+package com.tenxcards.flashcards.config;
+
+import com.tenxcards.flashcards.service.SupabaseAuthClient;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the cached result of the background Supabase Auth probe as the
+ * 'supabaseAuth' component of /actuator/health. Never calls Supabase itself.
+ *
+ * An outage is reported as DEGRADED rather than DOWN: the default status order
+ * ignores it, so /actuator/health and the liveness/readiness probes stay UP
+ * while login is unavailable. The 'supabase' health group orders DEGRADED
+ * first and answers 503 for it.
+ */
+@Component
+public class SupabaseAuthHealthIndicator implements HealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "Supabase Auth is unreachable");
+
+    private final SupabaseAuthClient authClient;
+
+    public SupabaseAuthHealthIndicator(SupabaseAuthClient authClient) {
+        this.authClient = authClient;
+    }
+
+    @Override
+    public Health health() {
+        SupabaseAuthClient.HealthStatus status = authClient.getHealth();
+        Health.Builder builder = status.up() == null ? Health.unknown()
+                : status.up() ? Health.up() : Health.status(DEGRADED);
+        if (status.checkedAt() != null) {
+            builder.withDetail("checked_at", status.checkedAt().toString());
+        }
+        if (status.lastError() != null) {
+            builder.withDetail("last_error", status.lastError())
+                    .withDetail("consecutive_failures", status.consecutiveFailures());
+        }
+        return builder.build();
+    }
+}
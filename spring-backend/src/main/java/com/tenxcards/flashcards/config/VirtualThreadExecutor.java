@@ -0,0 +1,94 @@
+package com.tenxcards.flashcards.config;
+
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts a virtual thread per task, with at most 'maxInFlight' tasks accepted.
+ * Like a full ThreadPoolTaskExecutor queue, a task over the limit is rejected
+ * with {@link TaskRejectedException} instead of waiting. Of the accepted tasks at
+ * most 'maxRunning' run at once; the others wait, parked on their virtual thread,
+ * like queued tasks of a pool with maxRunning threads. Requires Java 21.
+ */
+public class VirtualThreadExecutor implements TaskExecutor, AutoCloseable {
+
+    private final VirtualThreadTaskExecutor delegate;
+    private final Semaphore permits;
+    private final Semaphore running;
+    private final int maxInFlight;
+    private final int maxRunning;
+    private final long awaitTerminationSeconds;
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    public VirtualThreadExecutor(String threadNamePrefix, int maxInFlight, int maxRunning, long awaitTerminationSeconds) {
+        this.delegate = new VirtualThreadTaskExecutor(threadNamePrefix);
+        this.permits = new Semaphore(maxInFlight);
+        this.running = new Semaphore(maxRunning, true);
+        this.maxInFlight = maxInFlight;
+        this.maxRunning = maxRunning;
+        this.awaitTerminationSeconds = awaitTerminationSeconds;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            throw new TaskRejectedException("Executor at its limit of " + maxInFlight + " running tasks");
+        }
+        peakInFlight.accumulateAndGet(getInFlight(), Math::max);
+        try {
+            delegate.execute(() -> {
+                try {
+                    running.acquire();
+                    try {
+                        task.run();
+                    } finally {
+                        running.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getInFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    public int getRunning() {
+        return maxRunning - running.availablePermits();
+    }
+
+    public int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getMaxRunning() {
+        return maxRunning;
+    }
+
+    /**
+     * Waits up to awaitTerminationSeconds for running tasks, like the platform
+     * pool's wait-for-tasks-on-shutdown.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        if (permits.tryAcquire(maxInFlight, awaitTerminationSeconds, TimeUnit.SECONDS)) {
+            permits.release(maxInFlight);
+        }
+    }
+}
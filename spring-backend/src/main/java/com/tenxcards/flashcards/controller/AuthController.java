@@ -1,15 +1,20 @@
 package com.tenxcards.flashcards.controller;
 
 import com.tenxcards.flashcards.dto.*;
+import com.tenxcards.flashcards.entity.User;
 import com.tenxcards.flashcards.service.SupabaseAuthService;
+import com.tenxcards.flashcards.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -18,41 +23,44 @@ public class AuthController {
     @Autowired
     private SupabaseAuthService supabaseAuthService;
     
+    @Autowired
+    private UserService userService;
+    
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<LoginUserResponseDTO>> login(@Valid @RequestBody LoginUserCommand loginCommand) {
-        try {
-            System.out.println("Login attempt for email: " + loginCommand.getEmail());
-            LoginUserResponseDTO responseDTO = supabaseAuthService.login(loginCommand);
-            System.out.println("Login successful for email: " + loginCommand.getEmail());
-            return ResponseEntity.ok(ApiResponse.success(responseDTO));
-            
-        } catch (Exception e) {
-            System.err.println("Login failed for email: " + loginCommand.getEmail() + ", Error: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(ApiResponse.error("Invalid email or password: " + e.getMessage()));
-        }
+    public Mono<ResponseEntity<ApiResponse<LoginUserResponseDTO>>> login(@Valid @RequestBody LoginUserCommand loginCommand) {
+        System.out.println("Login attempt for email: " + loginCommand.getEmail());
+        return supabaseAuthService.login(loginCommand)
+                .map(responseDTO -> {
+                    // Sign-in updates the user row; do not keep serving the previous copy
+                    userService.invalidatePrincipal(UUID.fromString(responseDTO.getUser().getId()));
+                    System.out.println("Login successful for email: " + loginCommand.getEmail());
+                    return ResponseEntity.ok(ApiResponse.success(responseDTO));
+                })
+                .onErrorResume(e -> {
+                    System.err.println("Login failed for email: " + loginCommand.getEmail() + ", Error: " + e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                            .body(ApiResponse.error("Invalid email or password: " + e.getMessage())));
+                });
     }
     
     @PostMapping("/register")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> register(@Valid @RequestBody RegisterUserCommand registerCommand) {
-        try {
-            if (!registerCommand.getPassword().equals(registerCommand.getConfirmPassword())) {
-                return ResponseEntity.badRequest()
-                        .body(ApiResponse.error("Passwords do not match"));
-            }
-            
-            Map<String, Object> response = supabaseAuthService.register(registerCommand);
-            return ResponseEntity.ok(ApiResponse.success(response));
-            
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Registration failed: " + e.getMessage()));
+    public Mono<ResponseEntity<ApiResponse<Map<String, Object>>>> register(@Valid @RequestBody RegisterUserCommand registerCommand) {
+        if (!registerCommand.getPassword().equals(registerCommand.getConfirmPassword())) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Passwords do not match")));
         }
+        
+        return supabaseAuthService.register(registerCommand)
+                .map(response -> ResponseEntity.ok(ApiResponse.success(response)))
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(ApiResponse.error("Registration failed: " + e.getMessage()))));
     }
     
     @PostMapping("/logout")
-    public ResponseEntity<ApiResponse<Map<String, String>>> logout() {
+    public ResponseEntity<ApiResponse<Map<String, String>>> logout(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            userService.invalidatePrincipal(user.getId());
+        }
         SecurityContextHolder.clearContext();
         Map<String, String> response = supabaseAuthService.logout();
         return ResponseEntity.ok(ApiResponse.success(response));
@@ -7,14 +7,25 @@ import com.tenxcards.flashcards.entity.Generation;
 import com.tenxcards.flashcards.entity.User;
 import com.tenxcards.flashcards.repository.FlashcardRepository;
 import com.tenxcards.flashcards.repository.GenerationRepository;
+import com.tenxcards.flashcards.service.DuplicateFlashcardIndex;
+import com.tenxcards.flashcards.service.FlashcardExportService;
+import com.tenxcards.flashcards.service.FlashcardSearchService;
+import com.tenxcards.flashcards.service.ReviewQueueCache;
+import com.tenxcards.flashcards.service.ReviewService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/flashcards")
@@ -26,7 +37,163 @@ public class FlashcardController {
     @Autowired
     private GenerationRepository generationRepository;
     
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+    @Autowired
+    private DuplicateFlashcardIndex duplicateIndex;
+    
+    @Autowired
+    private FlashcardExportService flashcardExportService;
+    
+    @Autowired
+    private ReviewService reviewService;
+    
+    @Autowired
+    private ReviewQueueCache reviewQueue;
+    
+    @Autowired
+    private FlashcardSearchService flashcardSearchService;
+    
+    @Value("${flashcards.search.limit:20}")
+    private int defaultSearchLimit;
+    
+    @Value("${flashcards.search.max-limit:100}")
+    private int maxSearchLimit;
+    
+    @Value("${flashcards.review.due-limit:20}")
+    private int defaultDueLimit;
+    
+    @Value("${flashcards.review.max-due-limit:100}")
+    private int maxDueLimit;
+    
+    @Value("${flashcards.list.page-size:100}")
+    private int defaultPageSize;
+    
+    @Value("${flashcards.list.max-page-size:500}")
+    private int maxPageSize;
+    
+    /**
+     * The user's deck in id order, one page at a time. When there are more cards,
+     * the X-Next-Cursor header holds the value to pass as 'cursor' for the next page.
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<FlashcardDTO>>> getFlashcards(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            
+            int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+            long afterId = cursor == null || cursor.isEmpty() ? 0L : Long.parseLong(cursor);
+            
+            // One extra row tells whether there is a next page
+            List<Flashcard> flashcards = flashcardRepository.findByUserAfterId(user, afterId, PageRequest.of(0, pageSize + 1));
+            boolean hasMore = flashcards.size() > pageSize;
+            if (hasMore) {
+                flashcards = flashcards.subList(0, pageSize);
+            }
+            
+            List<FlashcardDTO> flashcardDTOs = flashcards.stream()
+                    .map(ResponseMapper::toFlashcardDTO)
+                    .collect(Collectors.toList());
+            
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (hasMore) {
+                response.header(ResponseMapper.NEXT_CURSOR_HEADER,
+                        String.valueOf(flashcards.get(flashcards.size() - 1).getId()));
+            }
+            return response.body(ApiResponse.success(flashcardDTOs));
+            
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Invalid cursor: " + cursor));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve flashcards"));
+        }
+    }
+    
+    /**
+     * Exports the whole deck as newline-delimited JSON (Accept: application/x-ndjson),
+     * one flashcard per line, streamed from a database cursor.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportFlashcards(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        
+        StreamingResponseBody body = out -> flashcardExportService.writeNdjson(user, out, ResponseMapper::toFlashcardDTO);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
+    /**
+     * Full-text search over the front and back of the user's cards. Every word of
+     * 'q' must match, as a prefix; best matches first.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<List<FlashcardDTO>>> searchFlashcards(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            
+            int count = limit == null ? defaultSearchLimit : Math.max(1, Math.min(limit, maxSearchLimit));
+            List<FlashcardDTO> flashcardDTOs = flashcardSearchService.search(user, q, count).stream()
+                    .map(ResponseMapper::toFlashcardDTO)
+                    .collect(Collectors.toList());
+            
+            return ResponseEntity.ok(ApiResponse.success(flashcardDTOs));
+            
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to search flashcards"));
+        }
+    }
+    
+    /**
+     * The next cards to study: up to 'limit' of the user's cards that are due now,
+     * most overdue first.
+     */
+    @GetMapping("/due")
+    public ResponseEntity<ApiResponse<List<FlashcardDTO>>> getDueFlashcards(
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            
+            int count = limit == null ? defaultDueLimit : Math.max(1, Math.min(limit, maxDueLimit));
+            List<FlashcardDTO> flashcardDTOs = reviewService.findDue(user, count).stream()
+                    .map(ResponseMapper::toFlashcardDTO)
+                    .collect(Collectors.toList());
+            
+            return ResponseEntity.ok(ApiResponse.success(flashcardDTOs));
+            
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve due flashcards"));
+        }
+    }
+    
+    /**
+     * Records the answer to a card (SM-2 grade 0-5) and returns it with its next due time.
+     */
+    @PostMapping("/{id}/review")
+    public ResponseEntity<ApiResponse<FlashcardDTO>> reviewFlashcard(
+            @PathVariable Long id,
+            @Valid @RequestBody ReviewFlashcardCommand command,
+            Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            
+            return reviewService.review(user, id, command.getGrade())
+                    .map(flashcard -> ResponseEntity.ok(ApiResponse.success(ResponseMapper.toFlashcardDTO(flashcard))))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+            
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to record review"));
+        }
+    }
     
     @PostMapping
     public ResponseEntity<ApiResponse<FlashcardDTO>> createFlashcard(
@@ -35,6 +202,12 @@ public class FlashcardController {
         try {
             User user = (User) authentication.getPrincipal();
             
+            Optional<Long> duplicateOf = duplicateIndex.findDuplicate(user, command.getFront(), command.getBack(), null);
+            if (duplicateOf.isPresent() && duplicateIndex.isSuppressing()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(ApiResponse.error("Flashcard is a duplicate of flashcard " + duplicateOf.get()));
+            }
+            
             Flashcard flashcard = new Flashcard();
             flashcard.setFront(command.getFront());
             flashcard.setBack(command.getBack());
@@ -52,8 +225,12 @@ public class FlashcardController {
             }
             
             flashcard = flashcardRepository.save(flashcard);
+            duplicateIndex.onSaved(flashcard);
+            // The new card is due at once and must show up in the review queue
+            reviewQueue.invalidate(user);
             
-            FlashcardDTO dto = convertToDTO(flashcard);
+            FlashcardDTO dto = ResponseMapper.toFlashcardDTO(flashcard);
+            dto.setDuplicateOf(duplicateOf.orElse(null));
             return ResponseEntity.ok(ApiResponse.success(dto));
             
         } catch (Exception e) {
@@ -70,6 +247,9 @@ public class FlashcardController {
         try {
             User user = (User) authentication.getPrincipal();
             
+            // Pending review answers are written first so saving the card does not overwrite them
+            reviewQueue.flush(user);
+            
             Flashcard flashcard = flashcardRepository.findByIdAndUser(id, user)
                     .orElse(null);
             
@@ -77,13 +257,23 @@ public class FlashcardController {
                 return ResponseEntity.notFound().build();
             }
             
+            Optional<Long> duplicateOf = duplicateIndex.findDuplicate(user, command.getFront(), command.getBack(), id);
+            if (duplicateOf.isPresent() && duplicateIndex.isSuppressing()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(ApiResponse.error("Flashcard is a duplicate of flashcard " + duplicateOf.get()));
+            }
+            
             flashcard.setFront(command.getFront());
             flashcard.setBack(command.getBack());
             flashcard.setSource(FlashcardSource.fromValue(command.getSource()));
             
             flashcard = flashcardRepository.save(flashcard);
+            duplicateIndex.onSaved(flashcard);
+            // The review queue holds a copy of the card with its old content
+            reviewQueue.invalidate(user);
             
-            FlashcardDTO dto = convertToDTO(flashcard);
+            FlashcardDTO dto = ResponseMapper.toFlashcardDTO(flashcard);
+            dto.setDuplicateOf(duplicateOf.orElse(null));
             return ResponseEntity.ok(ApiResponse.success(dto));
             
         } catch (Exception e) {
@@ -107,6 +297,9 @@ public class FlashcardController {
             }
             
             flashcardRepository.delete(flashcard);
+            duplicateIndex.onDeleted(flashcard);
+            // The deleted card must not be served from the review queue any more
+            reviewQueue.invalidate(user);
             return ResponseEntity.ok(ApiResponse.success("Flashcard deleted successfully"));
             
         } catch (Exception e) {
@@ -114,21 +307,4 @@ public class FlashcardController {
                     .body(ApiResponse.error("Failed to delete flashcard"));
         }
     }
-    
-    private FlashcardDTO convertToDTO(Flashcard flashcard) {
-        FlashcardDTO dto = new FlashcardDTO();
-        dto.setId(flashcard.getId());
-        dto.setFront(flashcard.getFront());
-        dto.setBack(flashcard.getBack());
-        dto.setSource(flashcard.getSource().getValue());
-        dto.setCreatedAt(flashcard.getCreatedAt().format(formatter));
-        dto.setUpdatedAt(flashcard.getUpdatedAt().format(formatter));
-        dto.setDisplayOrder(flashcard.getDisplayOrder());
-        
-        if (flashcard.getGeneration() != null) {
-            dto.setGenerationId(flashcard.getGeneration().getId());
-        }
-        
-        return dto;
-    }
-}
+}
\ No newline at end of file
@@ -1,31 +1,32 @@
 package com.tenxcards.flashcards.controller;
 
 import com.tenxcards.flashcards.dto.*;
-import com.tenxcards.flashcards.entity.Flashcard;
-import com.tenxcards.flashcards.entity.FlashcardSource;
 import com.tenxcards.flashcards.entity.Generation;
 import com.tenxcards.flashcards.entity.User;
-import com.tenxcards.flashcards.repository.FlashcardRepository;
 import com.tenxcards.flashcards.repository.GenerationRepository;
-import com.tenxcards.flashcards.service.OpenAIService;
-import com.tenxcards.flashcards.service.OpenRouterService;
+import com.tenxcards.flashcards.repository.GenerationSummary;
+import com.tenxcards.flashcards.service.GenerationFlashcardService;
+import com.tenxcards.flashcards.service.GenerationJob;
+import com.tenxcards.flashcards.service.GenerationJobService;
+import com.tenxcards.flashcards.service.GenerationService;
+import com.tenxcards.flashcards.service.ai.ProviderUnavailableException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Mono;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.time.Duration;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.HexFormat;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -34,22 +35,23 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/generations")
 public class GenerationController {
 
+    @Value("${generation.list.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${generation.list.max-page-size:200}")
+    private int maxPageSize;
+
     @Autowired
     private GenerationRepository generationRepository;
 
     @Autowired
-    private FlashcardRepository flashcardRepository;
+    private GenerationService generationService;
 
     @Autowired
-    private OpenAIService openAIService;
+    private GenerationJobService generationJobService;
 
     @Autowired
-    private OpenRouterService openRouterService;
-
-    @Value("${aiprovider:openai}")
-    private String aiProvider;
-
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+    private GenerationFlashcardService generationFlashcardService;
 
     /**
      * Generates flashcards using the provider specified by the application parameter 'aiprovider'.
@@ -62,81 +64,182 @@ public class GenerationController {
         try {
             User user = (User) authentication.getPrincipal();
 
-            LocalDateTime startTime = LocalDateTime.now();
+            GenerationResultDTO result = generationService.generate(user, command.getText());
 
-            // Generate flashcards using selected provider
-            List<FlashcardProposalDTO> proposals;
-            String modelUsed;
-            if ("openrouter".equalsIgnoreCase(aiProvider)) {
-                proposals = openRouterService.generateFlashcards(command.getText());
-                modelUsed = openRouterService.getModel();
-            } else {
-                proposals = openAIService.generateFlashcards(command.getText());
-                modelUsed = openAIService.getModel();
-            }
+            return ResponseEntity.ok(ApiResponse.success(result));
 
-            LocalDateTime endTime = LocalDateTime.now();
-            Duration duration = Duration.between(startTime, endTime);
-
-            // Create generation record
-            Generation generation = new Generation();
-            generation.setName("Generation " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
-            generation.setUser(user);
-            generation.setGeneratedCount(proposals.size());
-            generation.setSourceTextLength(command.getText().length());
-            generation.setGenerationDuration(duration);
-            generation.setModel(modelUsed);
-            generation.setSourceTextHash(calculateSHA256(command.getText()));
-
-            generation = generationRepository.save(generation);
-
-            // Create result DTO
-            GenerationResultDTO result = new GenerationResultDTO();
-            result.setGenerationId(generation.getId());
-            result.setGenerationName(generation.getName());
-            result.setFlashcardProposals(proposals);
-            
-            // Create and set stats to match Express response
-            GenerationStatsDTO stats = new GenerationStatsDTO();
-            stats.setGeneratedCount(proposals.size());
-            stats.setGenerationDuration(formatDurationToISO8601(duration));
-            result.setStats(stats);
+        } catch (ProviderUnavailableException e) {
+            return providerUnavailable(e);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to generate flashcards: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Same result as POST /api/generations, produced without holding a request thread:
+     * the servlet thread is released as soon as the provider call is started and the
+     * response is written when the returned Mono completes.
+     */
+    @PostMapping("/reactive")
+    public Mono<ResponseEntity<ApiResponse<GenerationResultDTO>>> generateFlashcardsReactive(
+            @Valid @RequestBody GenerateFlashcardsCommand command,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+
+        return generationService.generateReactive(user, command.getText())
+                .map(result -> ResponseEntity.ok(ApiResponse.success(result)))
+                .onErrorResume(ProviderUnavailableException.class, e -> Mono.just(providerUnavailable(e)))
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(ApiResponse.error("Failed to generate flashcards: " + e.getMessage()))));
+    }
+
+    /**
+     * Generates flashcards for texts too long for a single prompt (e.g. a whole chapter).
+     * The text is split into overlapping chunks that are generated in parallel and
+     * merged, with near-identical cards removed.
+     */
+    @PostMapping("/chunked")
+    public ResponseEntity<ApiResponse<GenerationResultDTO>> generateChunkedFlashcards(
+            @Valid @RequestBody GenerateChunkedFlashcardsCommand command,
+            Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+
+            GenerationResultDTO result = generationService.generateChunked(user, command.getText());
 
             return ResponseEntity.ok(ApiResponse.success(result));
 
+        } catch (ProviderUnavailableException e) {
+            return providerUnavailable(e);
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.error("Generation queue is full, please try again later"));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Failed to generate flashcards: " + e.getMessage()));
         }
     }
 
-    private String calculateSHA256(String text) {
+    /**
+     * Submits a generation job and returns 202 immediately. The generation row is
+     * created in the 'pending' state; poll /jobs/{jobId} or subscribe to
+     * /jobs/{jobId}/events for the proposals.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<ApiResponse<GenerationJobDTO>> submitGenerationJob(
+            @Valid @RequestBody GenerateFlashcardsCommand command,
+            Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+
+            GenerationJob job = generationJobService.submit(user, command.getText());
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/api/generations/jobs/" + job.getJobId()))
+                    .body(ApiResponse.success(job.toDTO()));
+
+        } catch (ProviderUnavailableException e) {
+            return providerUnavailable(e);
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.error("Generation queue is full, please try again later"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to submit generation: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Streams proposals as Server-Sent Events while the model is still generating:
+     * one 'proposal' event per flashcard, then 'completed' with the saved generation.
+     */
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamFlashcards(
+            @Valid @RequestBody GenerateFlashcardsCommand command,
+            Authentication authentication) {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
-            return HexFormat.of().formatHex(hash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Could not calculate SHA-256 hash", e);
+            User user = (User) authentication.getPrincipal();
+
+            return ResponseEntity.ok(generationJobService.stream(user, command.getText()));
+
+        } catch (ProviderUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(ApiResponse.error("Generation queue is full, please try again later"));
         }
     }
-    
-    private String formatDurationToISO8601(Duration duration) {
-        return duration.toString(); // Duration.toString() already returns ISO 8601 format (e.g., "PT3S")
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<GenerationJobDTO>> getGenerationJob(
+            @PathVariable String jobId,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+
+        return generationJobService.findJob(jobId, user)
+                .map(job -> ResponseEntity.ok(ApiResponse.success(job.toDTO())))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToGenerationJob(
+            @PathVariable String jobId,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+
+        return generationJobService.findJob(jobId, user)
+                .map(job -> ResponseEntity.ok(generationJobService.subscribe(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    /**
+     * Newest generations first, one page at a time. When there are more, the
+     * X-Next-Cursor header holds the value to pass as 'cursor' for the next page.
+     */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getGenerations(Authentication authentication) {
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getGenerations(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            Authentication authentication) {
         try {
             User user = (User) authentication.getPrincipal();
 
-            List<Generation> generations = generationRepository.findByUserOrderByCreatedAtDesc(user);
+            int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+            // One extra row tells whether there is a next page
+            Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+            List<GenerationSummary> generations;
+            if (cursor == null || cursor.isEmpty()) {
+                generations = generationRepository.findSummariesByUser(user, pageable);
+            } else {
+                GenerationCursor position = GenerationCursor.decode(cursor);
+                generations = generationRepository.findSummariesByUserBefore(
+                        user, position.getCreatedAt(), position.getId(), pageable);
+            }
+
+            boolean hasMore = generations.size() > pageSize;
+            if (hasMore) {
+                generations = generations.subList(0, pageSize);
+            }
 
             List<Map<String, Object>> generationData = generations.stream()
-                    .map(this::convertGenerationToMap)
+                    .map(generation -> ResponseMapper.toGenerationMap(generation, user))
                     .collect(Collectors.toList());
 
-            return ResponseEntity.ok(ApiResponse.success(generationData));
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (hasMore) {
+                GenerationSummary last = generations.get(generations.size() - 1);
+                response.header(ResponseMapper.NEXT_CURSOR_HEADER, new GenerationCursor(last.getCreatedAt(), last.getId()).encode());
+            }
+            return response.body(ApiResponse.success(generationData));
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Failed to retrieve generations"));
@@ -148,30 +251,26 @@ public class GenerationController {
             @PathVariable Long id,
             Authentication authentication) {
         try {
-            System.out.println("TRO API - generations/:id");
             User user = (User) authentication.getPrincipal();
             
-            System.out.println("TRO API - generations/:id - About to call findByIdAndUser...");
-            Generation generation = generationRepository.findByIdAndUser(id, user)
+            // Generation and ordered cards in one round trip; the mapping below only reads
+            // ids of the lazy user and generation references, which needs no further queries
+            Generation generation = generationRepository.findWithFlashcardsByIdAndUser(id, user)
                     .orElse(null);
             
             if (generation == null) {
                 return ResponseEntity.notFound().build();
             }
-           
-            System.out.println("TRO API - generations/:id - About to call findByGenerationOrderByDisplayOrder...");
-            List<Flashcard> flashcards = flashcardRepository.findByGenerationOrderByDisplayOrder(generation);
             
-            Map<String, Object> generationData = convertGenerationToMap(generation);
-            List<FlashcardDTO> flashcardDTOs = flashcards.stream()
-                    .map(this::convertFlashcardToDTO)
+            Map<String, Object> generationData = ResponseMapper.toGenerationMap(generation);
+            List<FlashcardDTO> flashcardDTOs = generation.getFlashcards().stream()
+                    .map(ResponseMapper::toFlashcardDTO)
                     .collect(Collectors.toList());
             generationData.put("flashcards", flashcardDTOs);
             
             return ResponseEntity.ok(ApiResponse.success(generationData));
             
         } catch (Exception e) {
-            System.out.println("TRO API - generations/:id - error: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Failed to retrieve generation + " + e.getMessage()));
         }
@@ -193,28 +292,12 @@ public class GenerationController {
                 return ResponseEntity.notFound().build();
             }
             
-            // Delete existing flashcards for this generation
-            flashcardRepository.deleteByGeneration(generation);
-            
-            // Create new flashcards from the update data
+            // Apply the new card list as a diff against the saved cards
             @SuppressWarnings("unchecked")
             List<Map<String, Object>> flashcardsData = (List<Map<String, Object>>) updateData.get("flashcards");
             
-            if (flashcardsData != null) {
-                for (int i = 0; i < flashcardsData.size(); i++) {
-                    Map<String, Object> flashcardData = flashcardsData.get(i);
-                    
-                    Flashcard flashcard = new Flashcard();
-                    flashcard.setFront((String) flashcardData.get("front"));
-                    flashcard.setBack((String) flashcardData.get("back"));
-                    flashcard.setSource(FlashcardSource.fromValue((String) flashcardData.get("source")));
-                    flashcard.setDisplayOrder(i + 1);
-                    flashcard.setUser(user);
-                    flashcard.setGeneration(generation);
-                    
-                    flashcardRepository.save(flashcard);
-                }
-            }
+            generationFlashcardService.replaceFlashcards(generation, user,
+                    flashcardsData != null ? flashcardsData : List.of());
             
             return ResponseEntity.ok(ApiResponse.success("Generation updated successfully"));
             
@@ -240,7 +323,7 @@ public class GenerationController {
             }
             
             // Delete all flashcards associated with this generation
-            flashcardRepository.deleteByGeneration(generation);
+            generationFlashcardService.deleteFlashcards(generation, user);
             
             // Delete the generation
             generationRepository.delete(generation);
@@ -253,30 +336,13 @@ public class GenerationController {
         }
     }
     
-    private Map<String, Object> convertGenerationToMap(Generation generation) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", generation.getId());
-        map.put("generation_name", generation.getName());
-        map.put("created_at", generation.getCreatedAt() != null ? generation.getCreatedAt().format(formatter) : null);
-        map.put("updated_at", generation.getUpdatedAt() != null ? generation.getUpdatedAt().format(formatter) : null);
-        map.put("user_id", generation.getUser() != null && generation.getUser().getId() != null ? generation.getUser().getId().toString() : null);
-        return map;
-    }
-    
-    private FlashcardDTO convertFlashcardToDTO(Flashcard flashcard) {
-        FlashcardDTO dto = new FlashcardDTO();
-        dto.setId(flashcard.getId());
-        dto.setFront(flashcard.getFront());
-        dto.setBack(flashcard.getBack());
-        dto.setSource(flashcard.getSource() != null ? flashcard.getSource().getValue() : null);
-        dto.setCreatedAt(flashcard.getCreatedAt() != null ? flashcard.getCreatedAt().format(formatter) : null);
-        dto.setUpdatedAt(flashcard.getUpdatedAt() != null ? flashcard.getUpdatedAt().format(formatter) : null);
-        dto.setDisplayOrder(flashcard.getDisplayOrder());
-        
-        if (flashcard.getGeneration() != null) {
-            dto.setGenerationId(flashcard.getGeneration().getId());
-        }
-        
-        return dto;
+    /**
+     * 503 with a Retry-After hint when the provider's circuit breaker is open or
+     * its concurrency limit is reached, so clients back off instead of retrying at once.
+     */
+    private <T> ResponseEntity<ApiResponse<T>> providerUnavailable(ProviderUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiResponse.error(e.getMessage()));
     }
 }
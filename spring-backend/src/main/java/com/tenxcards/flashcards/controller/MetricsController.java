@@ -0,0 +1,72 @@
+package com.tenxcards.flashcards.controller;
+
+import com.tenxcards.flashcards.dto.ApiResponse;
+import com.tenxcards.flashcards.service.DuplicateFlashcardIndex;
+import com.tenxcards.flashcards.service.GenerationResultCache;
+import com.tenxcards.flashcards.service.InFlightGenerations;
+import com.tenxcards.flashcards.service.ReviewQueueCache;
+import com.tenxcards.flashcards.service.SupabaseAuthClient;
+import com.tenxcards.flashcards.service.UserService;
+import com.tenxcards.flashcards.service.ai.FlashcardGeneratorRegistry;
+import com.tenxcards.flashcards.service.ratelimit.RateLimitService;
+import com.tenxcards.flashcards.service.ai.RoutingFlashcardGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Snapshot of the in-process counters kept by the generation pipeline, the
+ * authentication principal cache, the review queues, the
+ * Supabase Auth health check and the per-user rate limits.
+ */
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    @Autowired
+    private GenerationResultCache generationResultCache;
+
+    @Autowired
+    private InFlightGenerations inFlightGenerations;
+
+    @Autowired
+    private FlashcardGeneratorRegistry generatorRegistry;
+
+    @Autowired
+    private DuplicateFlashcardIndex duplicateFlashcardIndex;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RoutingFlashcardGenerator routingFlashcardGenerator;
+
+    @Autowired
+    private ReviewQueueCache reviewQueueCache;
+
+    @Autowired
+    private SupabaseAuthClient supabaseAuthClient;
+
+    @Autowired
+    private RateLimitService rateLimitService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("generation_cache", generationResultCache.getStats());
+        metrics.put("generation_in_flight", inFlightGenerations.getStats());
+        metrics.put("providers", generatorRegistry.getStats());
+        metrics.put("routing", routingFlashcardGenerator.getStats());
+        metrics.put("duplicate_index", duplicateFlashcardIndex.getStats());
+        metrics.put("principal_cache", userService.getPrincipalCacheStats());
+        metrics.put("review_queue", reviewQueueCache.getStats());
+        metrics.put("supabase_auth", supabaseAuthClient.getStats());
+        metrics.put("rate_limit", rateLimitService.getStats());
+        return ResponseEntity.ok(ApiResponse.success(metrics));
+    }
+}
@@ -0,0 +1,73 @@
+package com.tenxcards.flashcards.controller;
+
+import com.tenxcards.flashcards.dto.FlashcardDTO;
+import com.tenxcards.flashcards.entity.Flashcard;
+import com.tenxcards.flashcards.entity.Generation;
+import com.tenxcards.flashcards.entity.User;
+import com.tenxcards.flashcards.repository.GenerationSummary;
+
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Entity to response conversions shared by the controllers (and the benchmarks).
+ */
+public final class ResponseMapper {
+
+    /**
+     * Response header of paged listings holding the cursor of the next page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+
+    private ResponseMapper() {
+    }
+
+    public static FlashcardDTO toFlashcardDTO(Flashcard flashcard) {
+        FlashcardDTO dto = new FlashcardDTO();
+        dto.setId(flashcard.getId());
+        dto.setFront(flashcard.getFront());
+        dto.setBack(flashcard.getBack());
+        dto.setSource(flashcard.getSource() != null ? flashcard.getSource().getValue() : null);
+        dto.setCreatedAt(flashcard.getCreatedAt() != null ? flashcard.getCreatedAt().format(FORMATTER) : null);
+        dto.setUpdatedAt(flashcard.getUpdatedAt() != null ? flashcard.getUpdatedAt().format(FORMATTER) : null);
+        dto.setDisplayOrder(flashcard.getDisplayOrder());
+        dto.setDueAt(flashcard.getDueAt() != null ? flashcard.getDueAt().format(FORMATTER) : null);
+        dto.setIntervalDays(flashcard.getIntervalDays());
+        dto.setEaseFactor(flashcard.getEaseFactor());
+        dto.setRepetitions(flashcard.getRepetitions());
+        
+        if (flashcard.getGeneration() != null) {
+            dto.setGenerationId(flashcard.getGeneration().getId());
+        }
+        
+        return dto;
+    }
+
+    public static Map<String, Object> toGenerationMap(Generation generation) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", generation.getId());
+        map.put("generation_name", generation.getName());
+        map.put("created_at", generation.getCreatedAt() != null ? generation.getCreatedAt().format(FORMATTER) : null);
+        map.put("updated_at", generation.getUpdatedAt() != null ? generation.getUpdatedAt().format(FORMATTER) : null);
+        map.put("user_id", generation.getUser() != null && generation.getUser().getId() != null ? generation.getUser().getId().toString() : null);
+        map.put("status", generation.getStatus() != null ? generation.getStatus().getValue() : null);
+        return map;
+    }
+
+    /**
+     * Same keys as {@link #toGenerationMap(Generation)}; the user is the one the listing was queried for.
+     */
+    public static Map<String, Object> toGenerationMap(GenerationSummary generation, User user) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", generation.getId());
+        map.put("generation_name", generation.getName());
+        map.put("created_at", generation.getCreatedAt() != null ? generation.getCreatedAt().format(FORMATTER) : null);
+        map.put("updated_at", generation.getUpdatedAt() != null ? generation.getUpdatedAt().format(FORMATTER) : null);
+        map.put("user_id", user.getId() != null ? user.getId().toString() : null);
+        map.put("status", generation.getStatus() != null ? generation.getStatus().getValue() : null);
+        return map;
+    }
+}
@@ -23,6 +23,20 @@ public class FlashcardDTO {
     @JsonProperty("display_order")
     private Integer displayOrder;
     
+    @JsonProperty("duplicate_of")
+    private Long duplicateOf;
+    
+    @JsonProperty("due_at")
+    private String dueAt;
+    
+    @JsonProperty("interval_days")
+    private Integer intervalDays;
+    
+    @JsonProperty("ease_factor")
+    private Double easeFactor;
+    
+    private Integer repetitions;
+    
     // Constructors
     public FlashcardDTO() {}
     
@@ -101,4 +115,44 @@ public class FlashcardDTO {
     public void setDisplayOrder(Integer displayOrder) {
         this.displayOrder = displayOrder;
     }
-}
\ No newline at end of file
+    
+    public Long getDuplicateOf() {
+        return duplicateOf;
+    }
+    
+    public void setDuplicateOf(Long duplicateOf) {
+        this.duplicateOf = duplicateOf;
+    }
+    
+    public String getDueAt() {
+        return dueAt;
+    }
+    
+    public void setDueAt(String dueAt) {
+        this.dueAt = dueAt;
+    }
+    
+    public Integer getIntervalDays() {
+        return intervalDays;
+    }
+    
+    public void setIntervalDays(Integer intervalDays) {
+        this.intervalDays = intervalDays;
+    }
+    
+    public Double getEaseFactor() {
+        return easeFactor;
+    }
+    
+    public void setEaseFactor(Double easeFactor) {
+        this.easeFactor = easeFactor;
+    }
+    
+    public Integer getRepetitions() {
+        return repetitions;
+    }
+    
+    public void setRepetitions(Integer repetitions) {
+        this.repetitions = repetitions;
+    }
+}
@@ -1,10 +1,17 @@
 package com.tenxcards.flashcards.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public class FlashcardProposalDTO {
     
     private String front;
     private String back;
     private String source = "ai-full";
+
+    @JsonProperty("duplicate_of")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long duplicateOf;
     
     // Constructors
     public FlashcardProposalDTO() {}
@@ -38,4 +45,12 @@ public class FlashcardProposalDTO {
     public void setSource(String source) {
         this.source = source;
     }
-}
\ No newline at end of file
+    
+    public Long getDuplicateOf() {
+        return duplicateOf;
+    }
+    
+    public void setDuplicateOf(Long duplicateOf) {
+        this.duplicateOf = duplicateOf;
+    }
+}
@@ -0,0 +1,27 @@
+package com.tenxcards.flashcards.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public class GenerateChunkedFlashcardsCommand {
+    
+    @NotBlank(message = "Text is required")
+    @Size(min = 1000, max = 200000, message = "Text must be between 1000 and 200000 characters")
+    private String text;
+    
+    // Constructors
+    public GenerateChunkedFlashcardsCommand() {}
+    
+    public GenerateChunkedFlashcardsCommand(String text) {
+        this.text = text;
+    }
+    
+    // Getters and Setters
+    public String getText() {
+        return text;
+    }
+    
+    public void setText(String text) {
+        this.text = text;
+    }
+}
@@ -0,0 +1,70 @@
+package com.tenxcards.flashcards.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GenerationJobDTO {
+    
+    @JsonProperty("job_id")
+    private String jobId;
+    
+    @JsonProperty("generation_id")
+    private Long generationId;
+    
+    private String status;
+    
+    private GenerationResultDTO result;
+    
+    private String error;
+    
+    // Constructors
+    public GenerationJobDTO() {}
+    
+    public GenerationJobDTO(String jobId, Long generationId, String status) {
+        this.jobId = jobId;
+        this.generationId = generationId;
+        this.status = status;
+    }
+    
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+    
+    public Long getGenerationId() {
+        return generationId;
+    }
+    
+    public void setGenerationId(Long generationId) {
+        this.generationId = generationId;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public GenerationResultDTO getResult() {
+        return result;
+    }
+    
+    public void setResult(GenerationResultDTO result) {
+        this.result = result;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
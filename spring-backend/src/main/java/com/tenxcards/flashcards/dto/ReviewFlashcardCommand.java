@@ -0,0 +1,30 @@
+package com.tenxcards.flashcards.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public class ReviewFlashcardCommand {
+    
+    // SM-2 quality of the answer: 0-2 forgotten, 3 hard, 4 good, 5 easy
+    @NotNull(message = "Grade is required")
+    @Min(value = 0, message = "Grade must be between 0 and 5")
+    @Max(value = 5, message = "Grade must be between 0 and 5")
+    private Integer grade;
+    
+    // Constructors
+    public ReviewFlashcardCommand() {}
+    
+    public ReviewFlashcardCommand(Integer grade) {
+        this.grade = grade;
+    }
+    
+    // Getters and Setters
+    public Integer getGrade() {
+        return grade;
+    }
+    
+    public void setGrade(Integer grade) {
+        this.grade = grade;
+    }
+}
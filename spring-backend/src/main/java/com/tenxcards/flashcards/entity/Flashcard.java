@@ -11,8 +11,11 @@ import java.util.UUID;
 @Table(name = "flashcards")
 public class Flashcard {
     
+    // Pooled sequence instead of IDENTITY so inserts can be sent as JDBC batches;
+    // allocationSize must match the sequence's INCREMENT BY (see README, Schema Changes)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flashcards_id_seq")
+    @SequenceGenerator(name = "flashcards_id_seq", sequenceName = "flashcards_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, length = 1000)
@@ -44,6 +47,22 @@ public class Flashcard {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
     
+    // Spaced-repetition state (SM-2), see ReviewScheduler; new cards are due at once
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+    
+    @Column(name = "interval_days", nullable = false)
+    private Integer intervalDays = 0;
+    
+    @Column(name = "ease_factor", nullable = false)
+    private Double easeFactor = 2.5;
+    
+    @Column(name = "repetitions", nullable = false)
+    private Integer repetitions = 0;
+    
+    @Column(name = "last_reviewed_at")
+    private LocalDateTime lastReviewedAt;
+    
     // Constructors
     public Flashcard() {}
     
@@ -64,6 +83,24 @@ public class Flashcard {
         this.generation = generation;
     }
     
+    @PrePersist
+    void initDueAt() {
+        if (dueAt == null) {
+            dueAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Starts the review schedule over, as for a newly created card.
+     */
+    public void resetSchedule() {
+        dueAt = LocalDateTime.now();
+        intervalDays = 0;
+        easeFactor = 2.5;
+        repetitions = 0;
+        lastReviewedAt = null;
+    }
+    
     // Getters and Setters
     public Long getId() {
         return id;
@@ -136,4 +173,44 @@ public class Flashcard {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
-}
\ No newline at end of file
+    
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+    
+    public void setDueAt(LocalDateTime dueAt) {
+        this.dueAt = dueAt;
+    }
+    
+    public Integer getIntervalDays() {
+        return intervalDays;
+    }
+    
+    public void setIntervalDays(Integer intervalDays) {
+        this.intervalDays = intervalDays;
+    }
+    
+    public Double getEaseFactor() {
+        return easeFactor;
+    }
+    
+    public void setEaseFactor(Double easeFactor) {
+        this.easeFactor = easeFactor;
+    }
+    
+    public Integer getRepetitions() {
+        return repetitions;
+    }
+    
+    public void setRepetitions(Integer repetitions) {
+        this.repetitions = repetitions;
+    }
+    
+    public LocalDateTime getLastReviewedAt() {
+        return lastReviewedAt;
+    }
+    
+    public void setLastReviewedAt(LocalDateTime lastReviewedAt) {
+        this.lastReviewedAt = lastReviewedAt;
+    }
+}
@@ -54,7 +54,12 @@ public class Generation {
     @Column(name = "source_text_hash", nullable = false)
     private String sourceTextHash;
 
+    @Convert(converter = GenerationStatusConverter.class)
+    @Column(name = "status", nullable = false)
+    private GenerationStatus status = GenerationStatus.COMPLETED;
+
     @OneToMany(mappedBy = "generation", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OrderBy("displayOrder")
     private List<Flashcard> flashcards = new ArrayList<>();
 
     // Constructors
@@ -162,6 +167,14 @@ public class Generation {
         this.sourceTextHash = sourceTextHash;
     }
 
+    public GenerationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(GenerationStatus status) {
+        this.status = status;
+    }
+
     public List<Flashcard> getFlashcards() {
         return flashcards;
     }
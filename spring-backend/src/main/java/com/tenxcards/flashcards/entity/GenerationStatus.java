@@ -0,0 +1,33 @@
+package com.tenxcards.flashcards.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+public enum GenerationStatus {
+    PENDING("pending"),
+    COMPLETED("completed"),
+    FAILED("failed");
+    
+    private final String value;
+    
+    GenerationStatus(String value) {
+        this.value = value;
+    }
+    
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+    
+    @JsonCreator
+    public static GenerationStatus fromValue(String value) {
+        for (GenerationStatus status : GenerationStatus.values()) {
+            if (status.value.equals(value)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException(
+            "Invalid generation status: " + value + ". Valid values: pending, completed, failed"
+        );
+    }
+}
@@ -0,0 +1,17 @@
+package com.tenxcards.flashcards.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class GenerationStatusConverter implements AttributeConverter<GenerationStatus, String> {
+    @Override
+    public String convertToDatabaseColumn(GenerationStatus attribute) {
+        return attribute != null ? attribute.getValue() : null;
+    }
+
+    @Override
+    public GenerationStatus convertToEntityAttribute(String dbData) {
+        return dbData != null ? GenerationStatus.fromValue(dbData) : null;
+    }
+}
@@ -3,16 +3,84 @@ package com.tenxcards.flashcards.repository;
 import com.tenxcards.flashcards.entity.Flashcard;
 import com.tenxcards.flashcards.entity.Generation;
 import com.tenxcards.flashcards.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface FlashcardRepository extends JpaRepository<Flashcard, Long> {
     List<Flashcard> findByUserOrderByDisplayOrder(User user);
     List<Flashcard> findByGenerationOrderByDisplayOrder(Generation generation);
     Optional<Flashcard> findByIdAndUser(Long id, User user);
-    void deleteByGeneration(Generation generation);
+
+    /**
+     * A page of the user's deck in id order, starting after the given id (keyset paging).
+     */
+    @Query("select f from Flashcard f where f.user = :user and f.id > :afterId order by f.id")
+    List<Flashcard> findByUserAfterId(@Param("user") User user, @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Cards due at or before 'now', most overdue first; a range scan of the (user_id, due_at) index.
+     */
+    @Query("select f from Flashcard f where f.user = :user and f.dueAt <= :now order by f.dueAt, f.id")
+    List<Flashcard> findDue(@Param("user") User user, @Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * The user's cards soonest due first, due or not; warms the in-memory review queue.
+     */
+    @Query("select f from Flashcard f where f.user = :user order by f.dueAt, f.id")
+    List<Flashcard> findByUserOrderByDueAt(@Param("user") User user, Pageable pageable);
+
+    /**
+     * Full-text match of a tsquery against the generated search_vector column (PostgreSQL only),
+     * best ts_rank first.
+     */
+    @Query(value = "select f.* from flashcards f, to_tsquery('simple', :query) q " +
+                   "where f.user_id = :userId and f.search_vector @@ q " +
+                   "order by ts_rank(f.search_vector, q) desc, f.id limit :limit",
+           nativeQuery = true)
+    List<Flashcard> search(@Param("userId") UUID userId, @Param("query") String tsQuery, @Param("limit") int limit);
+
+    /**
+     * Cards whose front or back contains the lower-case pattern; the search fallback for other databases.
+     */
+    @Query("select f from Flashcard f where f.user = :user " +
+           "and (lower(f.front) like :pattern or lower(f.back) like :pattern) order by f.id")
+    List<Flashcard> findByUserContaining(@Param("user") User user, @Param("pattern") String pattern, Pageable pageable);
+
+    /**
+     * The whole deck in id order through a JDBC cursor fetching 500 rows at a time.
+     * Must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select f from Flashcard f where f.user = :user order by f.id")
+    Stream<Flashcard> streamByUserOrderById(@Param("user") User user);
+
+    /**
+     * Bulk delete in one statement; does not load or cascade to the cards.
+     */
+    @Modifying
+    @Query("delete from Flashcard f where f.generation = :generation")
+    int deleteByGeneration(@Param("generation") Generation generation);
+
+    @Query("select f.id from Flashcard f where f.generation = :generation")
+    List<Long> findIdsByGeneration(@Param("generation") Generation generation);
+
+    @Query("select f.id as id, f.front as front, f.back as back from Flashcard f where f.user = :user")
+    List<FlashcardText> findTextsByUser(@Param("user") User user);
 }
\ No newline at end of file
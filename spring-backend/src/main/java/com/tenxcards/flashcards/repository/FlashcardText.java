@@ -0,0 +1,10 @@
+package com.tenxcards.flashcards.repository;
+
+/**
+ * Id and text of a flashcard, without the entity and its associations.
+ */
+public interface FlashcardText {
+    Long getId();
+    String getFront();
+    String getBack();
+}
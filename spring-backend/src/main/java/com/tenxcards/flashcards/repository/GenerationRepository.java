@@ -2,9 +2,13 @@ package com.tenxcards.flashcards.repository;
 
 import com.tenxcards.flashcards.entity.Generation;
 import com.tenxcards.flashcards.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +16,29 @@ import java.util.Optional;
 public interface GenerationRepository extends JpaRepository<Generation, Long> {
     List<Generation> findByUserOrderByCreatedAtDesc(User user);
     Optional<Generation> findByIdAndUser(Long id, User user);
-}
\ No newline at end of file
+
+    /**
+     * The generation with its flashcards in display order, in one query.
+     */
+    @Query("select distinct g from Generation g left join fetch g.flashcards where g.id = :id and g.user = :user")
+    Optional<Generation> findWithFlashcardsByIdAndUser(@Param("id") Long id, @Param("user") User user);
+
+    /**
+     * Newest generations first; the first page of the keyset listing.
+     */
+    @Query("select g.id as id, g.name as name, g.createdAt as createdAt, g.updatedAt as updatedAt, g.status as status " +
+           "from Generation g where g.user = :user order by g.createdAt desc, g.id desc")
+    List<GenerationSummary> findSummariesByUser(@Param("user") User user, Pageable pageable);
+
+    /**
+     * The page after the generation at (createdAt, id), so the cost does not grow with the offset.
+     */
+    @Query("select g.id as id, g.name as name, g.createdAt as createdAt, g.updatedAt as updatedAt, g.status as status " +
+           "from Generation g where g.user = :user " +
+           "and (g.createdAt < :createdAt or (g.createdAt = :createdAt and g.id < :id)) " +
+           "order by g.createdAt desc, g.id desc")
+    List<GenerationSummary> findSummariesByUserBefore(@Param("user") User user,
+                                                      @Param("createdAt") LocalDateTime createdAt,
+                                                      @Param("id") Long id,
+                                                      Pageable pageable);
+}
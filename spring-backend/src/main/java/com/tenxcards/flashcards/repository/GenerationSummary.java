@@ -0,0 +1,16 @@
+package com.tenxcards.flashcards.repository;
+
+import com.tenxcards.flashcards.entity.GenerationStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns listed by GET /api/generations, without the entity and its associations.
+ */
+public interface GenerationSummary {
+    Long getId();
+    String getName();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+    GenerationStatus getStatus();
+}
@@ -1,6 +1,9 @@
 package com.tenxcards.flashcards.security;
 
 import com.tenxcards.flashcards.service.UserService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,6 +18,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 import java.util.UUID;
 
 @Component
@@ -26,15 +30,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) 
             throws ServletException, IOException {
         
+        // Time spent authenticating the request, excluding the rest of the chain
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "anonymous";
         try {
             String jwt = getJwtFromRequest(request);
             
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String userId = tokenProvider.getUserIdFromToken(jwt);
+            Optional<Claims> claims = StringUtils.hasText(jwt) ? tokenProvider.parseValidToken(jwt) : Optional.empty();
+            
+            if (claims.isPresent()) {
+                String userId = claims.get().getSubject();
                 UserDetails userDetails = userService.loadUserById(UUID.fromString(userId));
                 
                 UsernamePasswordAuthenticationToken authentication = 
@@ -42,10 +54,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                outcome = "authenticated";
             }
         } catch (Exception ex) {
+            outcome = "error";
             logger.error("Could not set user authentication in security context", ex);
         }
+        sample.stop(meterRegistry.timer("jwt.authentication", "outcome", outcome));
         
         filterChain.doFilter(request, response);
     }
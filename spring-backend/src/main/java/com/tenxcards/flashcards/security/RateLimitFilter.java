@@ -0,0 +1,72 @@
+package com.tenxcards.flashcards.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenxcards.flashcards.dto.ApiResponse;
+import com.tenxcards.flashcards.entity.User;
+import com.tenxcards.flashcards.service.ratelimit.RateLimitCategory;
+import com.tenxcards.flashcards.service.ratelimit.RateLimitService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Applies the per-user rate limits to authenticated API requests. Runs right after
+ * JwtAuthenticationFilter; anonymous requests are left to the authorization rules.
+ * Any POST under /api/generations starts a generation and takes a generation token,
+ * every other request a CRUD token.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    @Autowired
+    private RateLimitService rateLimitService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !rateLimitService.isEnabled()
+                || !path.startsWith("/api/")
+                || path.startsWith("/api/auth/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            RateLimitService.Decision decision = rateLimitService.tryAcquire(user.getId(), categoryOf(request));
+            if (!decision.allowed()) {
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                objectMapper.writeValue(response.getOutputStream(),
+                        ApiResponse.error("Too many requests, retry in " + decision.retryAfterSeconds() + " s"));
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    static RateLimitCategory categoryOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (HttpMethod.POST.matches(request.getMethod()) && path.startsWith("/api/generations")) {
+            return RateLimitCategory.GENERATION;
+        }
+        return RateLimitCategory.CRUD;
+    }
+}
@@ -0,0 +1,166 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import com.tenxcards.flashcards.service.ai.CapacityWait;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Map-reduce generation for texts longer than a single prompt: the text is split
+ * into overlapping chunks, up to max-parallel-chunks of them are generated at the
+ * same time on the chunkExecutor, and the proposals are merged in chunk order with
+ * near-duplicates from the overlaps removed. Wall time is bounded by the slowest
+ * chunk as long as the chunks fit into one parallel wave.
+ *
+ * Parallelism is further capped by the calls the provider would admit when the
+ * request starts, and a chunk refused because the provider is at its concurrency
+ * limit waits and retries for up to capacity-wait-ms instead of failing the request.
+ * The first chunk to fail fails the request at once: chunks not yet started are
+ * skipped and running ones are interrupted, so no further provider calls are paid for.
+ */
+@Component
+public class ChunkedGenerator {
+
+    @Autowired
+    @Qualifier("chunkExecutor")
+    private TaskExecutor chunkExecutor;
+
+    @Value("${generation.chunking.max-parallel-chunks:8}")
+    private int maxParallelChunks;
+
+    @Value("${generation.chunking.capacity-wait-ms:30000}")
+    private long capacityWaitMs;
+
+    private final TextChunker chunker;
+    private final FlashcardDeduplicator deduplicator;
+
+    public ChunkedGenerator(
+            @Value("${generation.chunking.chunk-size:8000}") int chunkSize,
+            @Value("${generation.chunking.overlap:400}") int overlap,
+            @Value("${generation.chunking.dedupe-similarity:0.8}") double dedupeSimilarity) {
+        this.chunker = new TextChunker(chunkSize, overlap);
+        this.deduplicator = new FlashcardDeduplicator(dedupeSimilarity);
+    }
+
+    /**
+     * @param providerCapacity calls the provider would admit right now
+     * @param generateChunk produces the proposals for a single chunk
+     * @return merged, deduplicated proposals; fails if any chunk fails
+     */
+    public List<FlashcardProposalDTO> generate(String text, int providerCapacity,
+                                               Function<String, List<FlashcardProposalDTO>> generateChunk) {
+        List<String> chunks = chunker.split(text);
+        if (chunks.size() == 1) {
+            return generateChunk.apply(chunks.get(0));
+        }
+
+        Semaphore permits = new Semaphore(Math.max(1, Math.min(maxParallelChunks, providerCapacity)));
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<ChunkCall> calls = new CopyOnWriteArrayList<>();
+        try {
+            for (String chunk : chunks) {
+                permits.acquire();
+                if (cancelled.get()) {
+                    permits.release();
+                    break;
+                }
+                ChunkCall call = new ChunkCall(() -> {
+                    if (cancelled.get()) {
+                        throw new CancellationException();
+                    }
+                    // Other calls, including this request's own chunks, free up provider slots
+                    return CapacityWait.call(() -> generateChunk.apply(chunk), capacityWaitMs, cancelled::get);
+                }, permits, error -> {
+                    // The first failure decides the request; stop the sibling chunks
+                    if (failure.compareAndSet(null, error)) {
+                        cancelled.set(true);
+                        calls.forEach(sibling -> sibling.cancel(true));
+                    }
+                });
+                calls.add(call);
+                try {
+                    chunkExecutor.execute(call);
+                } catch (RuntimeException e) {
+                    calls.remove(call);
+                    permits.release();
+                    throw e;
+                }
+            }
+
+            List<FlashcardProposalDTO> merged = new ArrayList<>();
+            for (ChunkCall call : calls) {
+                try {
+                    merged.addAll(call.get());
+                } catch (ExecutionException | CancellationException e) {
+                    // A chunk cancelled because a later one failed ends the wait at once
+                    throw propagate(failure.get() != null ? failure.get() : e);
+                }
+            }
+            return deduplicator.deduplicate(merged);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled.set(true);
+            calls.forEach(call -> call.cancel(true));
+            throw new RuntimeException("Interrupted while generating chunks", e);
+        }
+    }
+
+    private static RuntimeException propagate(Throwable e) {
+        if (e instanceof ExecutionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        if (e instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        return new RuntimeException(e);
+    }
+
+    /**
+     * A chunk submitted to the chunk executor. Its permit is returned however the
+     * call ends, including when it is cancelled before it started. A failure is
+     * reported once the call is done, so cancelling the siblings skips this one.
+     */
+    private static final class ChunkCall extends FutureTask<List<FlashcardProposalDTO>> {
+
+        private final Semaphore permits;
+        private final Consumer<Throwable> onFailure;
+
+        ChunkCall(Callable<List<FlashcardProposalDTO>> call, Semaphore permits, Consumer<Throwable> onFailure) {
+            super(call);
+            this.permits = permits;
+            this.onFailure = onFailure;
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            super.setException(t);
+            onFailure.accept(t);
+        }
+
+        @Override
+        protected void done() {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import com.tenxcards.flashcards.entity.Flashcard;
+import com.tenxcards.flashcards.entity.User;
+import com.tenxcards.flashcards.repository.FlashcardRepository;
+import com.tenxcards.flashcards.repository.FlashcardText;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Per-user near-duplicate index over the front and back of saved flashcards.
+ * A user's index is built from the database on first use and then kept up to
+ * date incrementally as cards are created, updated and deleted; lookups only
+ * compare against the LSH candidates instead of every card of the user.
+ * Indexes of the least recently active users are dropped beyond max-users.
+ */
+@Component
+public class DuplicateFlashcardIndex {
+
+    public enum Mode { FLAG, SUPPRESS }
+
+    private final FlashcardRepository flashcardRepository;
+    private final boolean enabled;
+    private final Mode mode;
+    private final double similarityThreshold;
+    private final int bands;
+    private final int rowsPerBand;
+    private final MinHasher minHasher;
+    private final Map<UUID, UserIndex> indexes;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong duplicatesFound = new AtomicLong();
+    private final AtomicLong indexLoads = new AtomicLong();
+
+    public DuplicateFlashcardIndex(
+            FlashcardRepository flashcardRepository,
+            @Value("${flashcards.duplicates.enabled:true}") boolean enabled,
+            @Value("${flashcards.duplicates.mode:flag}") String mode,
+            @Value("${flashcards.duplicates.similarity-threshold:0.8}") double similarityThreshold,
+            @Value("${flashcards.duplicates.bands:16}") int bands,
+            @Value("${flashcards.duplicates.rows-per-band:8}") int rowsPerBand,
+            @Value("${flashcards.duplicates.shingle-size:5}") int shingleSize,
+            @Value("${flashcards.duplicates.max-users:10000}") int maxUsers) {
+        this.flashcardRepository = flashcardRepository;
+        this.enabled = enabled;
+        this.mode = Mode.valueOf(mode.toUpperCase());
+        this.similarityThreshold = similarityThreshold;
+        this.bands = bands;
+        this.rowsPerBand = rowsPerBand;
+        this.minHasher = new MinHasher(bands * rowsPerBand, shingleSize);
+        this.indexes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, UserIndex> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    public boolean isSuppressing() {
+        return enabled && mode == Mode.SUPPRESS;
+    }
+
+    /**
+     * Id of a saved card of the user that is a near-duplicate of the given text.
+     *
+     * @param excludeId card to ignore, e.g. the one being updated; may be null
+     */
+    public Optional<Long> findDuplicate(User user, String front, String back, Long excludeId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        lookups.incrementAndGet();
+        int[] signature = minHasher.signature(text(front, back));
+        UserIndex index = indexFor(user);
+        Optional<Long> duplicate;
+        index.lock.lock();
+        try {
+            index.ensureLoaded(user);
+            duplicate = index.lsh.findMostSimilar(signature, similarityThreshold, excludeId);
+        } finally {
+            index.lock.unlock();
+        }
+        if (duplicate.isPresent()) {
+            duplicatesFound.incrementAndGet();
+        }
+        return duplicate;
+    }
+
+    /**
+     * Sets duplicate_of on proposals that match a saved card of the user. In
+     * suppress mode those proposals are dropped instead.
+     */
+    public List<FlashcardProposalDTO> markDuplicates(User user, List<FlashcardProposalDTO> proposals) {
+        if (!enabled) {
+            return proposals;
+        }
+        List<FlashcardProposalDTO> result = new ArrayList<>(proposals.size());
+        for (FlashcardProposalDTO proposal : proposals) {
+            Optional<Long> duplicate = findDuplicate(user, proposal.getFront(), proposal.getBack(), null);
+            if (duplicate.isPresent() && mode == Mode.SUPPRESS) {
+                continue;
+            }
+            proposal.setDuplicateOf(duplicate.orElse(null));
+            result.add(proposal);
+        }
+        return result;
+    }
+
+    /**
+     * Indexes a saved card. Inside a transaction this happens after commit so
+     * rolled-back cards never become duplicate targets.
+     */
+    public void onSaved(Flashcard flashcard) {
+        if (!enabled || flashcard.getId() == null) {
+            return;
+        }
+        UUID userId = flashcard.getUser().getId();
+        long id = flashcard.getId();
+        int[] signature = minHasher.signature(text(flashcard.getFront(), flashcard.getBack()));
+        afterCommit(() -> update(userId, index -> index.lsh.put(id, signature)));
+    }
+
+    public void onDeleted(Flashcard flashcard) {
+        if (!enabled || flashcard.getId() == null) {
+            return;
+        }
+        UUID userId = flashcard.getUser().getId();
+        long id = flashcard.getId();
+        afterCommit(() -> update(userId, index -> index.lsh.remove(id)));
+    }
+
+    public void onDeleted(User user, Collection<Long> ids) {
+        if (!enabled || ids.isEmpty()) {
+            return;
+        }
+        UUID userId = user.getId();
+        List<Long> removed = List.copyOf(ids);
+        afterCommit(() -> update(userId, index -> removed.forEach(index.lsh::remove)));
+    }
+
+    public Map<String, Object> getStats() {
+        int users;
+        synchronized (indexes) {
+            users = indexes.size();
+        }
+        return Map.of(
+                "enabled", enabled,
+                "mode", mode.name().toLowerCase(),
+                "indexed_users", users,
+                "index_loads", indexLoads.get(),
+                "lookups", lookups.get(),
+                "duplicates_found", duplicatesFound.get()
+        );
+    }
+
+    /**
+     * Applies a change to a user's index if it is loaded; an index that is not
+     * loaded yet will read the change from the database when it is.
+     */
+    private void update(UUID userId, Consumer<UserIndex> change) {
+        UserIndex index;
+        synchronized (indexes) {
+            index = indexes.get(userId);
+        }
+        if (index != null) {
+            index.lock.lock();
+            try {
+                if (index.loaded) {
+                    change.accept(index);
+                }
+            } finally {
+                index.lock.unlock();
+            }
+        }
+    }
+
+    private UserIndex indexFor(User user) {
+        synchronized (indexes) {
+            return indexes.computeIfAbsent(user.getId(), id -> new UserIndex(new LshIndex(bands, rowsPerBand)));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String text(String front, String back) {
+        return (front == null ? "" : front) + " " + (back == null ? "" : back);
+    }
+
+    private final class UserIndex {
+        // A lock rather than the index's monitor: loading queries the database, which
+        // would pin a virtual thread to its carrier while blocked inside synchronized
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LshIndex lsh;
+        private boolean loaded;
+
+        private UserIndex(LshIndex lsh) {
+            this.lsh = lsh;
+        }
+
+        // Called with the lock of this index held
+        private void ensureLoaded(User user) {
+            if (loaded) {
+                return;
+            }
+            for (FlashcardText flashcard : flashcardRepository.findTextsByUser(user)) {
+                lsh.put(flashcard.getId(), minHasher.signature(text(flashcard.getFront(), flashcard.getBack())));
+            }
+            loaded = true;
+            indexLoads.incrementAndGet();
+        }
+    }
+}
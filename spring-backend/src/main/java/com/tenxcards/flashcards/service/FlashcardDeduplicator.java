@@ -0,0 +1,65 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Drops near-identical proposals, e.g. the same card produced for two
+ * overlapping chunks. Two proposals are duplicates when the Jaccard similarity
+ * of the word sets of their fronts reaches the threshold; the first one wins.
+ */
+public class FlashcardDeduplicator {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final double similarityThreshold;
+
+    public FlashcardDeduplicator(double similarityThreshold) {
+        this.similarityThreshold = similarityThreshold;
+    }
+
+    public List<FlashcardProposalDTO> deduplicate(List<FlashcardProposalDTO> proposals) {
+        List<FlashcardProposalDTO> kept = new ArrayList<>();
+        List<Set<String>> keptWords = new ArrayList<>();
+        for (FlashcardProposalDTO proposal : proposals) {
+            Set<String> words = words(proposal.getFront());
+            if (keptWords.stream().noneMatch(existing -> similarity(existing, words) >= similarityThreshold)) {
+                kept.add(proposal);
+                keptWords.add(words);
+            }
+        }
+        return kept;
+    }
+
+    static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    static double similarity(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) {
+            return 1.0;
+        }
+        int intersection = 0;
+        for (String word : a) {
+            if (b.contains(word)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (a.size() + b.size() - intersection);
+    }
+}
@@ -0,0 +1,59 @@
+package com.tenxcards.flashcards.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tenxcards.flashcards.entity.Flashcard;
+import com.tenxcards.flashcards.entity.User;
+import com.tenxcards.flashcards.repository.FlashcardRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's whole deck as newline-delimited JSON. The cards are read through
+ * a server-side cursor and detached once written, so heap use does not depend on
+ * the size of the deck.
+ */
+@Service
+public class FlashcardExportService {
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Writes one JSON line per card, in id order, and returns the number of cards.
+     * The cursor needs the transaction to stay open until the last card is written.
+     */
+    @Transactional(readOnly = true)
+    public long writeNdjson(User user, OutputStream out, Function<Flashcard, ?> mapper) throws IOException {
+        ObjectWriter writer = objectMapper.writer();
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 16 * 1024);
+        long count = 0;
+        try (Stream<Flashcard> flashcards = flashcardRepository.streamByUserOrderById(user)) {
+            Iterator<Flashcard> iterator = flashcards.iterator();
+            while (iterator.hasNext()) {
+                Flashcard flashcard = iterator.next();
+                buffered.write(writer.writeValueAsBytes(mapper.apply(flashcard)));
+                buffered.write('\n');
+                entityManager.detach(flashcard);
+                count++;
+            }
+        }
+        buffered.flush();
+        return count;
+    }
+}
@@ -0,0 +1,108 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.entity.Flashcard;
+import com.tenxcards.flashcards.entity.User;
+import com.tenxcards.flashcards.repository.FlashcardRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Full-text search over the front and back of a user's flashcards. On PostgreSQL
+ * it queries the generated flashcards.search_vector column through its GIN index
+ * (see README, Schema Changes): every word of the query must match as a prefix,
+ * and results are ranked with ts_rank. Other databases, e.g.
+ * H2 in tests, fall back to a case-insensitive LIKE scan without ranking.
+ */
+@Service
+public class FlashcardSearchService {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Bounds the tsquery built from user input
+    static final int MAX_TERMS = 8;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private boolean fullTextIndex;
+
+    @PostConstruct
+    void detectDatabase() {
+        fullTextIndex = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    /**
+     * Up to 'limit' of the user's cards matching every word of the query, best match first.
+     */
+    public List<Flashcard> search(User user, String query, int limit) {
+        List<String> terms = terms(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        if (fullTextIndex) {
+            return flashcardRepository.search(user.getId(), toPrefixQuery(terms), limit);
+        }
+        return scan(user, terms, limit);
+    }
+
+    /**
+     * Lower-cased words of the query; punctuation and tsquery operators are dropped.
+     */
+    static List<String> terms(String query) {
+        List<String> terms = new ArrayList<>();
+        if (query == null) {
+            return terms;
+        }
+        for (String word : NON_WORD.split(query.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty() && terms.size() < MAX_TERMS) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * 'quantum & comp:*' style tsquery: all terms must match, each as a prefix.
+     */
+    static String toPrefixQuery(List<String> terms) {
+        StringBuilder sb = new StringBuilder();
+        for (String term : terms) {
+            if (sb.length() > 0) {
+                sb.append(" & ");
+            }
+            sb.append(term).append(":*");
+        }
+        return sb.toString();
+    }
+
+    private List<Flashcard> scan(User user, List<String> terms, int limit) {
+        // The longest term narrows the scan most; the others are checked here
+        String longest = terms.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        List<Flashcard> result = new ArrayList<>();
+        for (Flashcard flashcard : flashcardRepository.findByUserContaining(user, "%" + longest + "%", PageRequest.of(0, limit * 10))) {
+            String text = (flashcard.getFront() + " " + flashcard.getBack()).toLowerCase(Locale.ROOT);
+            if (terms.stream().allMatch(text::contains)) {
+                result.add(flashcard);
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+}
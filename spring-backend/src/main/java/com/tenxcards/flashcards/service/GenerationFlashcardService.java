@@ -0,0 +1,138 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.entity.Flashcard;
+import com.tenxcards.flashcards.entity.FlashcardSource;
+import com.tenxcards.flashcards.entity.Generation;
+import com.tenxcards.flashcards.entity.User;
+import com.tenxcards.flashcards.repository.FlashcardRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Writes the flashcards of a generation with as few round trips as possible.
+ * A replacement is applied as a diff against the saved cards: unchanged cards
+ * are left alone, reused rows are updated in place, new cards are inserted in
+ * JDBC batches and the remaining rows are removed with one bulk DELETE.
+ */
+@Service
+public class GenerationFlashcardService {
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private DuplicateFlashcardIndex duplicateIndex;
+
+    @Autowired
+    private ReviewQueueCache reviewQueue;
+
+    /**
+     * Makes the cards of the generation match flashcardsData (front, back and
+     * source per entry, in display order).
+     */
+    @Transactional
+    public void replaceFlashcards(Generation generation, User user, List<Map<String, Object>> flashcardsData) {
+        // Pending review answers are written first so updated rows do not overwrite them
+        reviewQueue.flush(user);
+        List<Flashcard> existing = flashcardRepository.findByGenerationOrderByDisplayOrder(generation);
+        Set<Long> existingIds = new HashSet<>();
+        existing.forEach(flashcard -> existingIds.add(flashcard.getId()));
+
+        List<Map<String, Object>> wanted = new ArrayList<>();
+        for (Map<String, Object> flashcardData : flashcardsData) {
+            // The generation's own current cards are not duplicates of the new version
+            if (duplicateIndex.isSuppressing() && duplicateIndex.findDuplicate(user,
+                    (String) flashcardData.get("front"), (String) flashcardData.get("back"), null)
+                    .filter(duplicateOf -> !existingIds.contains(duplicateOf)).isPresent()) {
+                continue;
+            }
+            wanted.add(flashcardData);
+        }
+
+        // Pair each wanted card with a saved row: same content first, then any leftover row
+        Map<String, Deque<Flashcard>> byContent = new HashMap<>();
+        for (Flashcard flashcard : existing) {
+            byContent.computeIfAbsent(contentKey(flashcard.getFront(), flashcard.getBack()), key -> new ArrayDeque<>())
+                    .add(flashcard);
+        }
+        Flashcard[] matched = new Flashcard[wanted.size()];
+        Set<Flashcard> used = new HashSet<>();
+        for (int i = 0; i < wanted.size(); i++) {
+            Deque<Flashcard> candidates = byContent.get(contentKey((String) wanted.get(i).get("front"), (String) wanted.get(i).get("back")));
+            if (candidates != null && !candidates.isEmpty()) {
+                matched[i] = candidates.poll();
+                used.add(matched[i]);
+            }
+        }
+        Deque<Flashcard> leftovers = new ArrayDeque<>();
+        for (Flashcard flashcard : existing) {
+            if (!used.contains(flashcard)) {
+                leftovers.add(flashcard);
+            }
+        }
+
+        List<Flashcard> inserted = new ArrayList<>();
+        List<Flashcard> changed = new ArrayList<>();
+        for (int i = 0; i < wanted.size(); i++) {
+            Map<String, Object> flashcardData = wanted.get(i);
+            String front = (String) flashcardData.get("front");
+            String back = (String) flashcardData.get("back");
+            FlashcardSource source = FlashcardSource.fromValue((String) flashcardData.get("source"));
+
+            Flashcard flashcard = matched[i] != null ? matched[i] : leftovers.poll();
+            if (flashcard == null) {
+                flashcard = new Flashcard();
+                flashcard.setUser(user);
+                flashcard.setGeneration(generation);
+                inserted.add(flashcard);
+            } else if (!Objects.equals(flashcard.getFront(), front) || !Objects.equals(flashcard.getBack(), back)) {
+                // A reused row now holds a different card; its review history does not carry over
+                flashcard.resetSchedule();
+                changed.add(flashcard);
+            }
+            // Managed rows are only written at flush if one of these values actually changed
+            flashcard.setFront(front);
+            flashcard.setBack(back);
+            flashcard.setSource(source);
+            flashcard.setDisplayOrder(i + 1);
+        }
+
+        flashcardRepository.saveAll(inserted);
+        if (!leftovers.isEmpty()) {
+            List<Long> removedIds = leftovers.stream().map(Flashcard::getId).toList();
+            flashcardRepository.deleteAllByIdInBatch(removedIds);
+            duplicateIndex.onDeleted(user, removedIds);
+        }
+        inserted.forEach(duplicateIndex::onSaved);
+        changed.forEach(duplicateIndex::onSaved);
+        reviewQueue.invalidate(user);
+    }
+
+    /**
+     * Removes all cards of the generation with a single DELETE statement.
+     */
+    @Transactional
+    public void deleteFlashcards(Generation generation, User user) {
+        List<Long> ids = flashcardRepository.findIdsByGeneration(generation);
+        if (!ids.isEmpty()) {
+            flashcardRepository.deleteByGeneration(generation);
+            duplicateIndex.onDeleted(user, ids);
+            reviewQueue.invalidate(user);
+        }
+    }
+
+    private static String contentKey(String front, String back) {
+        return front + '\u0000' + back;
+    }
+}
@@ -0,0 +1,125 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.dto.GenerationJobDTO;
+import com.tenxcards.flashcards.dto.GenerationResultDTO;
+import com.tenxcards.flashcards.entity.GenerationStatus;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * In-memory state of a submitted generation job. The persistent record is the
+ * {@link com.tenxcards.flashcards.entity.Generation} row; this object only
+ * holds the proposals until the client collects them and the SSE subscribers
+ * waiting for completion.
+ */
+public class GenerationJob {
+
+    private final String jobId;
+    private final UUID userId;
+    private final Long generationId;
+    private final Instant createdAt = Instant.now();
+
+    private GenerationStatus status = GenerationStatus.PENDING;
+    private GenerationResultDTO result;
+    private String error;
+    private Instant finishedAt;
+    private final List<SseEmitter> emitters = new ArrayList<>();
+
+    public GenerationJob(String jobId, UUID userId, Long generationId) {
+        this.jobId = jobId;
+        this.userId = userId;
+        this.generationId = generationId;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public Long getGenerationId() {
+        return generationId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public synchronized GenerationStatus getStatus() {
+        return status;
+    }
+
+    public synchronized Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public synchronized GenerationJobDTO toDTO() {
+        GenerationJobDTO dto = new GenerationJobDTO(jobId, generationId, status.getValue());
+        dto.setResult(result);
+        dto.setError(error);
+        return dto;
+    }
+
+    void complete(GenerationResultDTO result) {
+        List<SseEmitter> subscribers;
+        synchronized (this) {
+            this.result = result;
+            this.status = GenerationStatus.COMPLETED;
+            this.finishedAt = Instant.now();
+            subscribers = new ArrayList<>(emitters);
+            emitters.clear();
+        }
+        subscribers.forEach(this::sendFinalEvent);
+    }
+
+    void fail(String error) {
+        List<SseEmitter> subscribers;
+        synchronized (this) {
+            this.error = error;
+            this.status = GenerationStatus.FAILED;
+            this.finishedAt = Instant.now();
+            subscribers = new ArrayList<>(emitters);
+            emitters.clear();
+        }
+        subscribers.forEach(this::sendFinalEvent);
+    }
+
+    /**
+     * Registers an SSE subscriber. If the job has already finished the final
+     * event is sent right away.
+     */
+    void subscribe(SseEmitter emitter) {
+        synchronized (this) {
+            if (status == GenerationStatus.PENDING) {
+                emitters.add(emitter);
+                emitter.onCompletion(() -> removeEmitter(emitter));
+                emitter.onTimeout(() -> removeEmitter(emitter));
+                return;
+            }
+        }
+        sendFinalEvent(emitter);
+    }
+
+    private synchronized void removeEmitter(SseEmitter emitter) {
+        emitters.remove(emitter);
+    }
+
+    private void sendFinalEvent(SseEmitter emitter) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(getStatus().getValue())
+                    .data(toDTO()));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // Client went away before the job finished
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.dto.ApiResponse;
+import com.tenxcards.flashcards.dto.GenerationResultDTO;
+import com.tenxcards.flashcards.entity.Generation;
+import com.tenxcards.flashcards.entity.GenerationStatus;
+import com.tenxcards.flashcards.entity.User;
+import com.tenxcards.flashcards.service.ai.ProviderUnavailableException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Accepts generation requests as background jobs. Submitting only inserts the
+ * pending {@link Generation} row; the LLM call runs on the bounded
+ * generationExecutor and clients poll or subscribe for the outcome.
+ */
+@Service
+public class GenerationJobService {
+
+    @Autowired
+    private GenerationService generationService;
+
+    @Autowired
+    @Qualifier("generationExecutor")
+    private TaskExecutor generationExecutor;
+
+    @Value("${generation.jobs.retention-minutes:30}")
+    private long retentionMinutes;
+
+    @Value("${generation.jobs.sse-timeout-ms:120000}")
+    private long sseTimeoutMs;
+
+    private final Map<String, GenerationJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * @throws ProviderUnavailableException when the provider's circuit breaker is
+     *         open; nothing is saved in that case
+     * @throws TaskRejectedException when the generation queue is full; the
+     *         pending generation is marked failed in that case
+     */
+    public GenerationJob submit(User user, String text) {
+        generationService.ensureProviderAvailable();
+        Generation generation = generationService.createPendingGeneration(user, text);
+        GenerationJob job = new GenerationJob(UUID.randomUUID().toString(), user.getId(), generation.getId());
+        jobs.put(job.getJobId(), job);
+
+        try {
+            generationExecutor.execute(() -> run(job, generation, text));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getJobId());
+            generationService.failGeneration(generation);
+            throw e;
+        }
+        return job;
+    }
+
+    private void run(GenerationJob job, Generation generation, String text) {
+        try {
+            GenerationResultDTO result = generationService.completeGeneration(generation, text);
+            job.complete(result);
+        } catch (Throwable e) {
+            // Errors too: pollers and SSE subscribers otherwise wait until they time out
+            System.err.println("Generation job " + job.getJobId() + " failed: " + e.getMessage());
+            job.fail("Failed to generate flashcards: " + e.getMessage());
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    public Optional<GenerationJob> findJob(String jobId, User user) {
+        GenerationJob job = jobs.get(jobId);
+        if (job == null || !job.getUserId().equals(user.getId())) {
+            return Optional.empty();
+        }
+        return Optional.of(job);
+    }
+
+    public SseEmitter subscribe(GenerationJob job) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        job.subscribe(emitter);
+        return emitter;
+    }
+
+    /**
+     * Runs a streaming generation on the generation executor and forwards each
+     * proposal to the returned emitter as a 'proposal' event, followed by a
+     * 'completed' event with the full result or a 'failed' event.
+     *
+     * @throws ProviderUnavailableException when the provider's circuit breaker is open
+     * @throws TaskRejectedException when the generation queue is full
+     */
+    public SseEmitter stream(User user, String text) {
+        generationService.ensureProviderAvailable();
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        generationExecutor.execute(() -> {
+            try {
+                GenerationResultDTO result = generationService.generateStreaming(user, text,
+                        proposal -> send(emitter, "proposal", proposal));
+                send(emitter, GenerationStatus.COMPLETED.getValue(), result);
+                emitter.complete();
+            } catch (Throwable e) {
+                // Errors too: the client otherwise waits until the emitter times out
+                System.err.println("Streaming generation failed: " + e.getMessage());
+                send(emitter, GenerationStatus.FAILED.getValue(),
+                        ApiResponse.error("Failed to generate flashcards: " + e.getMessage()));
+                emitter.complete();
+                if (e instanceof Error error) {
+                    throw error;
+                }
+            }
+        });
+        return emitter;
+    }
+
+    private void send(SseEmitter emitter, String eventName, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // Client disconnected; the generation is still saved and cached
+        }
+    }
+
+    /**
+     * Drops finished jobs whose results were not collected within the retention window.
+     * The generation rows themselves are kept.
+     */
+    @Scheduled(fixedDelayString = "${generation.jobs.purge-interval-ms:60000}")
+    public void purgeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(retentionMinutes));
+        jobs.values().removeIf(job -> job.getStatus() != GenerationStatus.PENDING
+                && job.getFinishedAt() != null
+                && job.getFinishedAt().isBefore(cutoff));
+    }
+}
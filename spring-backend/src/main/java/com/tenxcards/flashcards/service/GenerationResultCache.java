@@ -0,0 +1,127 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed cache of generation results keyed by
+ * (source text SHA-256, model, prompt version).
+ * The entries are held in a size- and TTL-bounded in-memory LRU. Saved
+ * flashcards are not used as a fallback: they are what one user chose to keep,
+ * not what the model proposed.
+ */
+@Component
+public class GenerationResultCache {
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final Duration ttl;
+    private final Clock clock;
+
+    private final LinkedHashMap<CacheKey, CacheEntry> entries;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public GenerationResultCache(
+            @Value("${generation.cache.enabled:true}") boolean enabled,
+            @Value("${generation.cache.max-size:1000}") int maxSize,
+            @Value("${generation.cache.ttl-minutes:1440}") long ttlMinutes) {
+        this(enabled, maxSize, Duration.ofMinutes(ttlMinutes), Clock.systemUTC());
+    }
+
+    GenerationResultCache(boolean enabled, int maxSize, Duration ttl, Clock clock) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+                if (size() > GenerationResultCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<List<FlashcardProposalDTO>> get(String sourceTextHash, String model, String promptVersion) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        CacheKey key = new CacheKey(sourceTextHash, model, promptVersion);
+
+        synchronized (entries) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt().isAfter(clock.instant())) {
+                    memoryHits.incrementAndGet();
+                    return Optional.of(copyOf(entry.proposals()));
+                }
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+        }
+
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String sourceTextHash, String model, String promptVersion, List<FlashcardProposalDTO> proposals) {
+        if (!enabled || proposals.isEmpty()) {
+            return;
+        }
+        CacheEntry entry = new CacheEntry(copyOf(proposals), clock.instant().plus(ttl));
+        synchronized (entries) {
+            entries.put(new CacheKey(sourceTextHash, model, promptVersion), entry);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hits = memoryHits.get();
+        long lookups = hits + misses.get();
+        return Map.of(
+                "size", size(),
+                "max_size", maxSize,
+                "memory_hits", memoryHits.get(),
+                "misses", misses.get(),
+                "evictions", evictions.get(),
+                "hit_ratio", lookups == 0 ? 0.0 : (double) hits / lookups
+        );
+    }
+
+    static List<FlashcardProposalDTO> copyOf(List<FlashcardProposalDTO> proposals) {
+        return proposals.stream()
+                .map(p -> {
+                    FlashcardProposalDTO dto = new FlashcardProposalDTO(p.getFront(), p.getBack());
+                    dto.setSource(p.getSource());
+                    return dto;
+                })
+                .toList();
+    }
+
+    private record CacheKey(String sourceTextHash, String model, String promptVersion) {}
+
+    private record CacheEntry(List<FlashcardProposalDTO> proposals, Instant expiresAt) {}
+}
@@ -0,0 +1,298 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import com.tenxcards.flashcards.dto.GenerationResultDTO;
+import com.tenxcards.flashcards.dto.GenerationStatsDTO;
+import com.tenxcards.flashcards.entity.Generation;
+import com.tenxcards.flashcards.entity.GenerationStatus;
+import com.tenxcards.flashcards.entity.User;
+import com.tenxcards.flashcards.repository.GenerationRepository;
+import com.tenxcards.flashcards.service.ai.CapacityWait;
+import com.tenxcards.flashcards.service.ai.FlashcardGenerator;
+import com.tenxcards.flashcards.service.ai.FlashcardGeneratorRegistry;
+import com.tenxcards.flashcards.service.ai.ProviderUnavailableException;
+import com.tenxcards.flashcards.service.ai.FlashcardPrompt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Runs a flashcard generation against the active AI provider and records
+ * the corresponding {@link Generation} row. Used both by the synchronous
+ * POST /api/generations endpoint and by background generation jobs.
+ */
+@Service
+public class GenerationService {
+
+    @Autowired
+    private GenerationRepository generationRepository;
+
+    @Autowired
+    private FlashcardGeneratorRegistry generatorRegistry;
+
+    @Autowired
+    private GenerationResultCache generationResultCache;
+
+    @Autowired
+    private InFlightGenerations inFlightGenerations;
+
+    @Autowired
+    private ChunkedGenerator chunkedGenerator;
+
+    @Autowired
+    private DuplicateFlashcardIndex duplicateIndex;
+
+    @Value("${generation.jobs.capacity-wait-ms:30000}")
+    private long capacityWaitMs;
+
+    /**
+     * Generates proposals and persists a completed generation in one blocking call.
+     */
+    public GenerationResultDTO generate(User user, String text) {
+        LocalDateTime startTime = LocalDateTime.now();
+        Generation generation = newGeneration(user, text);
+
+        FlashcardGenerator.Result result = generateProposals(text, generation.getSourceTextHash());
+        generation.setModel(result.model());
+        List<FlashcardProposalDTO> proposals = duplicateIndex.markDuplicates(user, result.proposals());
+
+        return saveCompleted(generation, proposals, startTime);
+    }
+
+    /**
+     * Non-blocking variant of {@link #generate}. The provider call runs on the
+     * WebClient event loop and holds no thread while in flight; the cache lookup,
+     * duplicate marking and the save of the Generation row are offloaded to the
+     * bounded-elastic scheduler.
+     */
+    public Mono<GenerationResultDTO> generateReactive(User user, String text) {
+        return Mono.defer(() -> {
+            LocalDateTime startTime = LocalDateTime.now();
+            Generation generation = newGeneration(user, text);
+            String sourceTextHash = generation.getSourceTextHash();
+            FlashcardGenerator generator = generatorRegistry.getActive();
+
+            return Mono.fromCallable(() -> cached(generator, sourceTextHash))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(cached -> cached.map(Mono::just).orElseGet(() ->
+                            inFlightGenerations.executeReactive(sourceTextHash, flightModel(generator), () ->
+                                    generator.generateReactive(text)
+                                            .doOnNext(result -> generationResultCache.put(sourceTextHash, result.model(),
+                                                    FlashcardPrompt.VERSION, result.proposals())))))
+                    .publishOn(Schedulers.boundedElastic())
+                    .map(result -> {
+                        generation.setModel(result.model());
+                        return saveCompleted(generation, duplicateIndex.markDuplicates(user, result.proposals()), startTime);
+                    });
+        });
+    }
+
+    /**
+     * Variant of {@link #generate} for long texts: proposals are generated per chunk
+     * in parallel and merged. Each chunk goes through the cache and single-flight
+     * path on its own, so re-submitting an edited chapter only regenerates the
+     * chunks that changed.
+     */
+    public GenerationResultDTO generateChunked(User user, String text) {
+        LocalDateTime startTime = LocalDateTime.now();
+        Generation generation = newGeneration(user, text);
+
+        // Routed chunks may be answered by different models; all of them are recorded
+        Set<String> models = ConcurrentHashMap.newKeySet();
+        List<FlashcardProposalDTO> proposals = chunkedGenerator.generate(text, generatorRegistry.getActiveCapacity(), chunk -> {
+            FlashcardGenerator.Result result = generateProposals(chunk, calculateSHA256(chunk));
+            models.add(result.model());
+            return result.proposals();
+        });
+        generation.setModel(String.join(",", new TreeSet<>(models)));
+        proposals = duplicateIndex.markDuplicates(user, proposals);
+
+        return saveCompleted(generation, proposals, startTime);
+    }
+
+    /**
+     * Streaming variant of {@link #generate}: each proposal is passed to the listener
+     * as soon as the provider has produced it. Cached results are replayed at once.
+     */
+    public GenerationResultDTO generateStreaming(User user, String text, Consumer<FlashcardProposalDTO> listener) {
+        LocalDateTime startTime = LocalDateTime.now();
+        Generation generation = newGeneration(user, text);
+        FlashcardGenerator generator = generatorRegistry.getActive();
+
+        // Duplicates are marked (or suppressed) per proposal before it is sent
+        List<FlashcardProposalDTO> emitted = new ArrayList<>();
+        Consumer<FlashcardProposalDTO> markingListener = proposal -> {
+            for (FlashcardProposalDTO marked : duplicateIndex.markDuplicates(user, List.of(proposal))) {
+                emitted.add(marked);
+                listener.accept(marked);
+            }
+        };
+
+        FlashcardGenerator.Result result = cached(generator, generation.getSourceTextHash()).orElse(null);
+        if (result != null) {
+            result.proposals().forEach(markingListener);
+        } else {
+            // Runs on the generation executor: wait for a provider slot rather than fail the accepted stream.
+            // A refusal happens before anything is streamed, so a retry never repeats a proposal
+            result = CapacityWait.call(() -> generator.stream(text, markingListener), capacityWaitMs);
+            generationResultCache.put(generation.getSourceTextHash(), result.model(), FlashcardPrompt.VERSION, result.proposals());
+        }
+        generation.setModel(result.model());
+
+        return saveCompleted(generation, emitted, startTime);
+    }
+
+    private GenerationResultDTO saveCompleted(Generation generation, List<FlashcardProposalDTO> proposals, LocalDateTime startTime) {
+        Duration duration = Duration.between(startTime, LocalDateTime.now());
+
+        generation.setGeneratedCount(proposals.size());
+        generation.setGenerationDuration(duration);
+        generation.setStatus(GenerationStatus.COMPLETED);
+
+        generation = generationRepository.save(generation);
+
+        return buildResult(generation, proposals, duration);
+    }
+
+    /**
+     * Records a generation in the pending state before the provider is called,
+     * so the row exists (and has an id) as soon as a job is submitted.
+     */
+    public Generation createPendingGeneration(User user, String text) {
+        Generation generation = newGeneration(user, text);
+        generation.setGeneratedCount(0);
+        generation.setGenerationDuration(Duration.ZERO);
+        generation.setStatus(GenerationStatus.PENDING);
+        return generationRepository.save(generation);
+    }
+
+    /**
+     * Calls the provider for a pending generation and marks it completed, or
+     * failed if the provider call throws. A call refused by the provider's
+     * concurrency limit is retried for up to generation.jobs.capacity-wait-ms.
+     */
+    public GenerationResultDTO completeGeneration(Generation generation, String text) {
+        LocalDateTime startTime = LocalDateTime.now();
+        try {
+            // The job was accepted by the executor: wait for a provider slot rather than fail it
+            FlashcardGenerator.Result result = CapacityWait.call(
+                    () -> generateProposals(text, generation.getSourceTextHash()), capacityWaitMs);
+            generation.setModel(result.model());
+            List<FlashcardProposalDTO> proposals = duplicateIndex.markDuplicates(generation.getUser(), result.proposals());
+            return saveCompleted(generation, proposals, startTime);
+        } catch (Throwable e) {
+            // Errors too: otherwise the row stays pending
+            generation.setGenerationDuration(Duration.between(startTime, LocalDateTime.now()));
+            failGeneration(generation);
+            throw e;
+        }
+    }
+
+    public void failGeneration(Generation generation) {
+        generation.setStatus(GenerationStatus.FAILED);
+        generationRepository.save(generation);
+    }
+
+    /**
+     * Returns cached proposals for identical text when available, otherwise generates
+     * flashcards using the provider specified by the application parameter 'aiprovider'.
+     * Concurrent requests for the same text share a single provider call.
+     */
+    FlashcardGenerator.Result generateProposals(String text, String sourceTextHash) {
+        FlashcardGenerator generator = generatorRegistry.getActive();
+        return cached(generator, sourceTextHash)
+                .orElseGet(() -> inFlightGenerations.execute(sourceTextHash, flightModel(generator), () -> {
+                    FlashcardGenerator.Result result = generator.generate(text);
+                    generationResultCache.put(sourceTextHash, result.model(), FlashcardPrompt.VERSION, result.proposals());
+                    return result;
+                }));
+    }
+
+    /**
+     * Cached proposals from any model the generator may answer with. Results are
+     * cached under the model that actually answered.
+     */
+    private Optional<FlashcardGenerator.Result> cached(FlashcardGenerator generator, String sourceTextHash) {
+        for (String model : generator.getModels()) {
+            Optional<List<FlashcardProposalDTO>> proposals = generationResultCache.get(sourceTextHash, model, FlashcardPrompt.VERSION);
+            if (proposals.isPresent()) {
+                return Optional.of(new FlashcardGenerator.Result(proposals.get(), model));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String flightModel(FlashcardGenerator generator) {
+        return String.join(",", generator.getModels());
+    }
+
+    /**
+     * @throws ProviderUnavailableException if the active provider's circuit breaker is open
+     */
+    public void ensureProviderAvailable() {
+        generatorRegistry.ensureActiveAvailable();
+    }
+
+    /**
+     * Model recorded on a generation until the call has answered.
+     */
+    public String getModel() {
+        return generatorRegistry.getActive().getModel();
+    }
+
+    private Generation newGeneration(User user, String text) {
+        Generation generation = new Generation();
+        generation.setName("Generation " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+        generation.setUser(user);
+        generation.setSourceTextLength(text.length());
+        generation.setModel(getModel());
+        generation.setSourceTextHash(calculateSHA256(text));
+        return generation;
+    }
+
+    private GenerationResultDTO buildResult(Generation generation, List<FlashcardProposalDTO> proposals, Duration duration) {
+        GenerationResultDTO result = new GenerationResultDTO();
+        result.setGenerationId(generation.getId());
+        result.setGenerationName(generation.getName());
+        result.setFlashcardProposals(proposals);
+
+        // Create and set stats to match Express response
+        GenerationStatsDTO stats = new GenerationStatsDTO();
+        stats.setGeneratedCount(proposals.size());
+        stats.setGenerationDuration(formatDurationToISO8601(duration));
+        result.setStats(stats);
+
+        return result;
+    }
+
+    public static String calculateSHA256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Could not calculate SHA-256 hash", e);
+        }
+    }
+
+    private String formatDurationToISO8601(Duration duration) {
+        return duration.toString(); // Duration.toString() already returns ISO 8601 format (e.g., "PT3S")
+    }
+}
@@ -0,0 +1,116 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.service.ai.FlashcardGenerator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight deduplication of provider calls. While a generation for a given
+ * (source text hash, model) is in flight, identical requests wait for that call
+ * instead of starting their own, and receive its proposals or its failure.
+ * The model is the key's: for a routed generation, the set of routed models.
+ */
+@Component
+public class InFlightGenerations {
+
+    private final Map<FlightKey, CompletableFuture<FlashcardGenerator.Result>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong leaderCalls = new AtomicLong();
+    private final AtomicLong coalescedRequests = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+
+    public FlashcardGenerator.Result execute(String sourceTextHash, String model, Supplier<FlashcardGenerator.Result> call) {
+        FlightKey key = new FlightKey(sourceTextHash, model);
+        CompletableFuture<FlashcardGenerator.Result> flight = new CompletableFuture<>();
+        CompletableFuture<FlashcardGenerator.Result> existing = inFlight.putIfAbsent(key, flight);
+
+        if (existing != null) {
+            coalescedRequests.incrementAndGet();
+            return copyOf(await(existing));
+        }
+
+        leaderCalls.incrementAndGet();
+        try {
+            FlashcardGenerator.Result result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // Errors too: waiters join the flight without a timeout
+            failedCalls.incrementAndGet();
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #execute}. Shares flights with it: a reactive
+     * request may wait for a blocking call and the other way round. If the leading
+     * subscriber cancels, waiting requests fail with a CancellationException.
+     */
+    public Mono<FlashcardGenerator.Result> executeReactive(String sourceTextHash, String model,
+                                                           Supplier<Mono<FlashcardGenerator.Result>> call) {
+        return Mono.defer(() -> {
+            FlightKey key = new FlightKey(sourceTextHash, model);
+            CompletableFuture<FlashcardGenerator.Result> flight = new CompletableFuture<>();
+            CompletableFuture<FlashcardGenerator.Result> existing = inFlight.putIfAbsent(key, flight);
+
+            if (existing != null) {
+                coalescedRequests.incrementAndGet();
+                return Mono.fromFuture(existing, true).map(InFlightGenerations::copyOf);
+            }
+
+            leaderCalls.incrementAndGet();
+            // Deferred so that a call failing before it returns a Mono still ends the flight
+            return Mono.defer(call)
+                    .switchIfEmpty(Mono.error(() -> new IllegalStateException("Generation completed without a result")))
+                    .doOnSuccess(flight::complete)
+                    .doOnError(e -> {
+                        failedCalls.incrementAndGet();
+                        flight.completeExceptionally(e);
+                    })
+                    .doFinally(signal -> {
+                        flight.completeExceptionally(new CancellationException("Leading generation was cancelled"));
+                        inFlight.remove(key, flight);
+                    });
+        });
+    }
+
+    private static FlashcardGenerator.Result copyOf(FlashcardGenerator.Result result) {
+        return new FlashcardGenerator.Result(GenerationResultCache.copyOf(result.proposals()), result.model());
+    }
+
+    private FlashcardGenerator.Result await(CompletableFuture<FlashcardGenerator.Result> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "in_flight", inFlight.size(),
+                "leader_calls", leaderCalls.get(),
+                "coalesced_requests", coalescedRequests.get(),
+                "failed_calls", failedCalls.get()
+        );
+    }
+
+    private record FlightKey(String sourceTextHash, String model) {}
+}
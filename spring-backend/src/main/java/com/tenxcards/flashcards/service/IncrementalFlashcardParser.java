@@ -0,0 +1,130 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import com.tenxcards.flashcards.service.ai.FlashcardProposalParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Parses a JSON array of flashcards while it is still being streamed from the
+ * model. Text is fed in arbitrary fragments; every time a top-level object in
+ * the array closes it is deserialized and handed to the listener. As in
+ * {@link FlashcardProposalParser}, the array starts at the first '[' whose next
+ * non-blank character is '{' or ']'; anything before it (code fences, prose
+ * such as "Here are [5] cards") is ignored.
+ */
+public class IncrementalFlashcardParser {
+
+    private final Consumer<FlashcardProposalDTO> listener;
+    private final StringBuilder fullText = new StringBuilder();
+    private final StringBuilder currentObject = new StringBuilder();
+    private final List<FlashcardProposalDTO> proposals = new ArrayList<>();
+
+    private boolean bracketSeen;
+    private boolean inArray;
+    private boolean arrayClosed;
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+
+    public IncrementalFlashcardParser(Consumer<FlashcardProposalDTO> listener) {
+        this.listener = listener;
+    }
+
+    public void feed(String fragment) {
+        if (fragment == null || fragment.isEmpty()) {
+            return;
+        }
+        fullText.append(fragment);
+        for (int i = 0; i < fragment.length() && !arrayClosed; i++) {
+            accept(fragment.charAt(i));
+        }
+    }
+
+    private void accept(char c) {
+        if (!inArray) {
+            if (bracketSeen && !Character.isWhitespace(c)) {
+                // A '[' only opens the array when an object or the closing ']' follows
+                bracketSeen = false;
+                if (c == '{' || c == ']') {
+                    inArray = true;
+                }
+            }
+            if (!inArray) {
+                bracketSeen |= c == '[';
+                return;
+            }
+        }
+
+        if (depth > 0) {
+            currentObject.append(c);
+        }
+
+        if (inString) {
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '"') {
+                inString = false;
+            }
+            return;
+        }
+
+        switch (c) {
+            case '"' -> inString = depth > 0;
+            case '{' -> {
+                if (depth == 0) {
+                    currentObject.setLength(0);
+                    currentObject.append(c);
+                }
+                depth++;
+            }
+            case '}' -> {
+                if (depth == 0) {
+                    // Stray brace between objects
+                    return;
+                }
+                depth--;
+                if (depth == 0) {
+                    emit(currentObject.toString());
+                }
+            }
+            case ']' -> {
+                if (depth == 0) {
+                    arrayClosed = true;
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void emit(String json) {
+        try {
+            FlashcardProposalDTO proposal = FlashcardProposalParser.readProposal(json);
+            if (proposal.getFront() != null && proposal.getBack() != null) {
+                proposals.add(proposal);
+                listener.accept(proposal);
+            }
+        } catch (Exception e) {
+            System.err.println("Skipping malformed streamed flashcard: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Proposals emitted so far.
+     */
+    public List<FlashcardProposalDTO> getProposals() {
+        return proposals;
+    }
+
+    /**
+     * Everything fed so far, for the FRONT/BACK fallback when the model did not answer with JSON.
+     */
+    public String getFullText() {
+        return fullText.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package com.tenxcards.flashcards.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Locality-sensitive hashing index over MinHash signatures. Signatures are cut
+ * into bands; items sharing at least one identical band become candidates and
+ * only those are compared, so a lookup touches a handful of items instead of
+ * the whole collection. Not thread-safe.
+ */
+public class LshIndex {
+
+    private final int bands;
+    private final int rowsPerBand;
+    private final Map<Long, Set<Long>> buckets = new HashMap<>();
+    private final Map<Long, int[]> signatures = new HashMap<>();
+
+    public LshIndex(int bands, int rowsPerBand) {
+        this.bands = bands;
+        this.rowsPerBand = rowsPerBand;
+    }
+
+    public void put(long id, int[] signature) {
+        remove(id);
+        signatures.put(id, signature);
+        for (int band = 0; band < bands; band++) {
+            buckets.computeIfAbsent(bucketKey(signature, band), key -> new HashSet<>()).add(id);
+        }
+    }
+
+    public void remove(long id) {
+        int[] signature = signatures.remove(id);
+        if (signature == null) {
+            return;
+        }
+        for (int band = 0; band < bands; band++) {
+            long key = bucketKey(signature, band);
+            Set<Long> bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.remove(id);
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * The most similar indexed item whose estimated similarity reaches the
+     * threshold, ignoring excludeId (e.g. the card being updated).
+     */
+    public Optional<Long> findMostSimilar(int[] signature, double threshold, Long excludeId) {
+        Set<Long> candidates = new HashSet<>();
+        for (int band = 0; band < bands; band++) {
+            Set<Long> bucket = buckets.get(bucketKey(signature, band));
+            if (bucket != null) {
+                candidates.addAll(bucket);
+            }
+        }
+
+        Long best = null;
+        double bestSimilarity = threshold;
+        for (Long candidate : candidates) {
+            if (candidate.equals(excludeId)) {
+                continue;
+            }
+            double similarity = MinHasher.similarity(signature, signatures.get(candidate));
+            if (similarity >= bestSimilarity) {
+                best = candidate;
+                bestSimilarity = similarity;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    public int size() {
+        return signatures.size();
+    }
+
+    private long bucketKey(int[] signature, int band) {
+        int hash = 1;
+        for (int i = band * rowsPerBand; i < (band + 1) * rowsPerBand; i++) {
+            hash = 31 * hash + signature[i];
+        }
+        return ((long) band << 32) | (hash & 0xffffffffL);
+    }
+}
@@ -0,0 +1,96 @@
+package com.tenxcards.flashcards.service;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * MinHash signatures over character shingles of normalized text. The fraction of
+ * equal positions in two signatures estimates the Jaccard similarity of the two
+ * shingle sets.
+ */
+public class MinHasher {
+
+    private final int shingleSize;
+    private final int[] multipliers;
+    private final int[] offsets;
+
+    public MinHasher(int numHashes, int shingleSize) {
+        this.shingleSize = shingleSize;
+        this.multipliers = new int[numHashes];
+        this.offsets = new int[numHashes];
+        // Fixed seed: signatures must stay comparable across restarts and index rebuilds
+        Random random = new Random(0x5EEDL);
+        for (int i = 0; i < numHashes; i++) {
+            multipliers[i] = random.nextInt() | 1;
+            offsets[i] = random.nextInt();
+        }
+    }
+
+    public int getNumHashes() {
+        return multipliers.length;
+    }
+
+    public int[] signature(String text) {
+        String normalized = normalize(text);
+        int[] signature = new int[multipliers.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+
+        int shingles = Math.max(1, normalized.length() - shingleSize + 1);
+        for (int start = 0; start < shingles; start++) {
+            int shingleHash = 0;
+            int end = Math.min(normalized.length(), start + shingleSize);
+            for (int i = start; i < end; i++) {
+                shingleHash = 31 * shingleHash + normalized.charAt(i);
+            }
+            for (int i = 0; i < signature.length; i++) {
+                int value = mix(shingleHash * multipliers[i] + offsets[i]);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+
+    /**
+     * Lower-cases and reduces punctuation and whitespace runs to a single space,
+     * so formatting differences do not count as differences.
+     */
+    static String normalize(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                pendingSpace = false;
+                sb.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    // MurmurHash3 finalizer
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
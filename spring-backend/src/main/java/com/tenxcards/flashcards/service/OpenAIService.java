@@ -1,63 +1,103 @@
 package com.tenxcards.flashcards.service;
 
 import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import com.tenxcards.flashcards.service.ai.ChatCompletionWebClient;
+import com.tenxcards.flashcards.service.ai.FlashcardGenerator;
+import com.tenxcards.flashcards.service.ai.FlashcardPrompt;
+import com.tenxcards.flashcards.service.ai.LlmMetrics;
+import com.theokanning.openai.client.OpenAiApi;
 import com.theokanning.openai.completion.chat.ChatCompletionRequest;
 import com.theokanning.openai.completion.chat.ChatCompletionResult;
 import com.theokanning.openai.completion.chat.ChatMessage;
 import com.theokanning.openai.completion.chat.ChatMessageRole;
 import com.theokanning.openai.service.OpenAiService;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.type.TypeReference;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Service
-public class OpenAIService {
+public class OpenAIService implements FlashcardGenerator {
 
+    private static final String COMPLETIONS_URL = "https://api.openai.com/v1/chat/completions";
 
-    static String SYSTEM_PROMPT = "You are a helpful assistant that generates flashcards from text. Create 5-10 high-quality flashcards with a question on the front and an answer on the back. Each flashcard should cover a key concept from the text. Format your response as a JSON array with objects containing \"front\" and \"back\" properties. JSON only, no extra text, tags or delimiters.";
-    
     @Value("${openai.api-key}")
     private String apiKey;
     
     @Value("${openai.model}")
     private String model;
 
+    @Value("${openai.timeout-seconds:30}")
+    private long timeoutSeconds;
+
+    @Value("${openai.max-concurrency:10}")
+    private int maxConcurrency;
+
+    @Value("${openai.max-idle-connections:5}")
+    private int maxIdleConnections;
+
+    @Autowired
+    private LlmMetrics llmMetrics;
+
+    @Override
+    public String getName() {
+        return "openai";
+    }
+
+    @Override
     public String getModel() {
         return model;
     }
+
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
     
     private OpenAiService openAiService;
     
-    private OpenAiService getOpenAiService() {
+    private synchronized OpenAiService getOpenAiService() {
         if (openAiService == null) {
-            openAiService = new OpenAiService(apiKey, Duration.ofSeconds(30));
+            // Dedicated keep-alive pool. Streamed completions are enqueued on OkHttp's dispatcher, whose
+            // default of 5 calls per host would queue streams the provider's limiter has already admitted
+            OkHttpClient client = OpenAiService.defaultClient(apiKey, Duration.ofSeconds(timeoutSeconds))
+                    .newBuilder()
+                    .connectionPool(new ConnectionPool(maxIdleConnections, 5, TimeUnit.MINUTES))
+                    .build();
+            client.dispatcher().setMaxRequests(maxConcurrency);
+            client.dispatcher().setMaxRequestsPerHost(maxConcurrency);
+            OpenAiApi api = OpenAiService.defaultRetrofit(client, OpenAiService.defaultObjectMapper()).create(OpenAiApi.class);
+            openAiService = new OpenAiService(api, client.dispatcher().executorService());
         }
         return openAiService;
     }
     
+    private ChatCompletionWebClient reactiveClient;
+    
+    private synchronized ChatCompletionWebClient getReactiveClient() {
+        if (reactiveClient == null) {
+            reactiveClient = new ChatCompletionWebClient(getName(), COMPLETIONS_URL, apiKey, timeoutSeconds,
+                    timeoutSeconds, maxConcurrency, llmMetrics);
+        }
+        return reactiveClient;
+    }
+    
+    @Override
     public List<FlashcardProposalDTO> generateFlashcards(String text) {
         try {
-            String userPrompt = buildPrompt(text);
-            
-            ChatMessage systemMessage = new ChatMessage(ChatMessageRole.SYSTEM.value(), SYSTEM_PROMPT);
-            ChatMessage userMessage = new ChatMessage(ChatMessageRole.USER.value(), userPrompt);
-            
-            ChatCompletionRequest request = ChatCompletionRequest.builder()
-                    .model(model)
-                    .messages(Arrays.asList(systemMessage, userMessage))
-                    .temperature(0.7)
-                    .maxTokens(2000)
-                    .build();
-            
-            ChatCompletionResult result = getOpenAiService().createChatCompletion(request);
+            ChatCompletionResult result = getOpenAiService().createChatCompletion(buildRequest(text));
+            if (result.getUsage() != null) {
+                llmMetrics.recordTokens(getName(), model, result.getUsage().getPromptTokens(), result.getUsage().getCompletionTokens());
+            }
             
             if (result.getChoices() != null && !result.getChoices().isEmpty()) {
                 String responseText = result.getChoices().get(0).getMessage().getContent();
@@ -72,78 +112,59 @@ public class OpenAIService {
         }
     }
     
-    private String buildPrompt(String text) {
-        return String.format(
-            "Create flashcards from the following text. Generate 5-10 flashcards that cover the key concepts, definitions, and important information.\n\n" +
-            "Format each flashcard as:\n" +
-            "FRONT: [question or prompt]\n" +
-            "BACK: [answer or explanation]\n" +
-            "---\n\n" +
-            "Make the questions clear and concise. Make the answers informative but not too long.\n\n" +
-            "Text to process:\n%s", text
-        );
+    /**
+     * Calls the chat completions API through WebClient instead of the blocking SDK client.
+     */
+    @Override
+    public Mono<List<FlashcardProposalDTO>> generateFlashcardsReactive(String text) {
+        return getReactiveClient().generateFlashcards(model, text);
     }
     
-    // Change from private to package-private for testing
-    List<FlashcardProposalDTO> parseFlashcards(String responseText) {
-        List<FlashcardProposalDTO> flashcards = new ArrayList<>();
-        
-        // First try to parse as JSON
+    /**
+     * Streams the completion and hands each flashcard to the listener as soon as
+     * its JSON object is complete. Returns all flashcards once the stream ends.
+     */
+    @Override
+    public List<FlashcardProposalDTO> streamFlashcards(String text, Consumer<FlashcardProposalDTO> listener) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            flashcards = mapper.readValue(responseText, new TypeReference<List<FlashcardProposalDTO>>() {});
-            return flashcards;
-        } catch (Exception e) {
-            // If JSON parsing fails, fall back to text format parsing
-            System.out.println("JSON parsing failed, falling back to text format parsing: " + e.getMessage());
+            IncrementalFlashcardParser parser = new IncrementalFlashcardParser(listener);
             
-            // Split by --- separator
-            String[] cards = responseText.split("---");
+            getOpenAiService().streamChatCompletion(buildRequest(text))
+                    .blockingForEach(chunk -> {
+                        if (chunk.getChoices() != null && !chunk.getChoices().isEmpty()
+                                && chunk.getChoices().get(0).getMessage() != null) {
+                            parser.feed(chunk.getChoices().get(0).getMessage().getContent());
+                        }
+                    });
             
-            for (String card : cards) {
-                card = card.trim();
-                if (card.isEmpty()) continue;
-                
-                // Extract FRONT and BACK using regex
-                Pattern frontPattern = Pattern.compile("FRONT:\\s*(.+?)(?=BACK:|$)", Pattern.DOTALL);
-                Pattern backPattern = Pattern.compile("BACK:\\s*(.+?)(?=FRONT:|$)", Pattern.DOTALL);
-                
-                Matcher frontMatcher = frontPattern.matcher(card);
-                Matcher backMatcher = backPattern.matcher(card);
-                
-                if (frontMatcher.find() && backMatcher.find()) {
-                    String front = frontMatcher.group(1).trim();
-                    String back = backMatcher.group(1).trim();
-                    
-                    if (!front.isEmpty() && !back.isEmpty()) {
-                        flashcards.add(new FlashcardProposalDTO(front, back));
-                    }
-                }
+            if (!parser.getProposals().isEmpty()) {
+                return parser.getProposals();
             }
+            // The model did not answer with a JSON array; parse the whole response instead
+            List<FlashcardProposalDTO> flashcards = parseFlashcards(parser.getFullText());
+            flashcards.forEach(listener);
+            return flashcards;
+            
+        } catch (Exception e) {
+            System.err.println("Error streaming flashcards: " + e.getMessage());
+            throw e;
         }
-        
-        return flashcards;
     }
     
-    private List<FlashcardProposalDTO> generateMockFlashcards(String text) {
-        // Fallback mock flashcards for testing when OpenAI is not available
-        List<FlashcardProposalDTO> mockFlashcards = new ArrayList<>();
-        
-        mockFlashcards.add(new FlashcardProposalDTO(
-            "What is the main topic of this text?",
-            "The main topic is extracted from the provided text content."
-        ));
-        
-        mockFlashcards.add(new FlashcardProposalDTO(
-            "What are the key concepts mentioned?",
-            "The key concepts are the important ideas and terms found in the text."
-        ));
-        
-        mockFlashcards.add(new FlashcardProposalDTO(
-            "What is the significance of this information?",
-            "This information is significant because it provides educational value and learning opportunities."
-        ));
+    private ChatCompletionRequest buildRequest(String text) {
+        ChatMessage systemMessage = new ChatMessage(ChatMessageRole.SYSTEM.value(), FlashcardPrompt.SYSTEM_PROMPT);
+        ChatMessage userMessage = new ChatMessage(ChatMessageRole.USER.value(), FlashcardPrompt.buildUserPrompt(text));
         
-        return mockFlashcards;
+        return ChatCompletionRequest.builder()
+                .model(model)
+                .messages(Arrays.asList(systemMessage, userMessage))
+                .temperature(0.7)
+                .maxTokens(2000)
+                .build();
+    }
+    
+    // Change from private to package-private for testing
+    List<FlashcardProposalDTO> parseFlashcards(String responseText) {
+        return FlashcardPrompt.parseFlashcards(responseText);
     }
-}
\ No newline at end of file
+}
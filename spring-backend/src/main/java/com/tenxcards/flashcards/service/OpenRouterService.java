@@ -1,21 +1,30 @@
 package com.tenxcards.flashcards.service;
 
 import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import com.tenxcards.flashcards.service.ai.ChatCompletionWebClient;
+import com.tenxcards.flashcards.service.ai.FlashcardGenerator;
+import com.tenxcards.flashcards.service.ai.FlashcardPrompt;
+import com.tenxcards.flashcards.service.ai.LlmMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.type.TypeReference;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
 
 @Service
-public class OpenRouterService {
-
-    static String SYSTEM_PROMPT = "You are a helpful assistant that generates flashcards from text. Create 5-10 high-quality flashcards with a question on the front and an answer on the back. Each flashcard should cover a key concept from the text. Format your response as a JSON array with objects containing \"front\" and \"back\" properties. JSON only, no extra text, tags or delimiters.";
+public class OpenRouterService implements FlashcardGenerator {
 
     @Value("${openrouter.api-key}")
     private String apiKey;
@@ -23,31 +32,67 @@ public class OpenRouterService {
     @Value("${openrouter.model}")
     private String model;
 
+    @Value("${openrouter.max-concurrency:10}")
+    private int maxConcurrency;
+
+    @Autowired
+    private LlmMetrics llmMetrics;
+
     private final String baseUrl = "https://openrouter.ai/api/v1/chat/completions";
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
 
-    public List<FlashcardProposalDTO> generateFlashcards(String text) {
-        System.out.println("Generating flashcards with OpenRouter");
-        try {
-            String userPrompt = buildPrompt(text);
+    private final long connectTimeoutSeconds;
 
-            List<Map<String, String>> messages = Arrays.asList(
-                Map.of("role", "system", "content", SYSTEM_PROMPT),
-                Map.of("role", "user", "content", userPrompt)
-            );
+    private final long readTimeoutSeconds;
+
+    private ChatCompletionWebClient reactiveClient;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * One shared JDK HttpClient keeps a pool of keep-alive connections to OpenRouter.
+     */
+    public OpenRouterService(
+            @Value("${openrouter.connect-timeout-seconds:5}") long connectTimeoutSeconds,
+            @Value("${openrouter.timeout-seconds:30}") long readTimeoutSeconds) {
+        HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+            .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofSeconds(readTimeoutSeconds));
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.connectTimeoutSeconds = connectTimeoutSeconds;
+        this.readTimeoutSeconds = readTimeoutSeconds;
+    }
 
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", model);
-            requestBody.put("messages", messages);
-            requestBody.put("temperature", 0.7);
-            requestBody.put("max_tokens", 2000);
+    private synchronized ChatCompletionWebClient getReactiveClient() {
+        if (reactiveClient == null) {
+            reactiveClient = new ChatCompletionWebClient(getName(), baseUrl, apiKey, connectTimeoutSeconds,
+                readTimeoutSeconds, maxConcurrency, llmMetrics);
+        }
+        return reactiveClient;
+    }
+
+    @Override
+    public String getName() {
+        return "openrouter";
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
 
+    @Override
+    public List<FlashcardProposalDTO> generateFlashcards(String text) {
+        System.out.println("Generating flashcards with OpenRouter");
+        try {
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             headers.set("Authorization", "Bearer " + apiKey);
 
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(buildRequestBody(text, false), headers);
 
             ResponseEntity<Map> response = restTemplate.exchange(
                 baseUrl,
@@ -58,6 +103,7 @@ public class OpenRouterService {
 
             if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
                 Map body = response.getBody();
+                recordUsage(objectMapper.valueToTree(body.get("usage")));
                 List choices = (List) body.get("choices");
                 if (choices != null && !choices.isEmpty()) {
                     Map choice = (Map) choices.get(0);
@@ -73,46 +119,102 @@ public class OpenRouterService {
         }
     }
 
-    private String buildPrompt(String text) {
-        return String.format(
-            "Create flashcards from the following text. Generate 5-10 flashcards that cover the key concepts, definitions, and important information.\n\n" +
-            "Format each flashcard as:\n" +
-            "FRONT: [question or prompt]\n" +
-            "BACK: [answer or explanation]\n" +
-            "---\n\n" +
-            "Make the questions clear and concise. Make the answers informative but not too long.\n\n" +
-            "Text to process:\n%s", text
-        );
+    /**
+     * Calls OpenRouter through WebClient instead of the blocking RestTemplate.
+     */
+    @Override
+    public Mono<List<FlashcardProposalDTO>> generateFlashcardsReactive(String text) {
+        return getReactiveClient().generateFlashcards(model, text);
     }
 
-    List<FlashcardProposalDTO> parseFlashcards(String responseText) {
-        List<FlashcardProposalDTO> flashcards = new ArrayList<>();
+    /**
+     * Streams the completion (server-sent "data:" lines) and hands each flashcard to
+     * the listener as soon as its JSON object is complete. Returns all flashcards
+     * once the stream ends.
+     */
+    @Override
+    public List<FlashcardProposalDTO> streamFlashcards(String text, Consumer<FlashcardProposalDTO> listener) {
+        System.out.println("Streaming flashcards with OpenRouter");
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            flashcards = mapper.readValue(responseText, new TypeReference<List<FlashcardProposalDTO>>() {});
-            return flashcards;
-        } catch (Exception e) {
-            System.out.println("JSON parsing failed, falling back to text format parsing: " + e.getMessage());
-            String[] cards = responseText.split("---");
-            for (String card : cards) {
-                card = card.trim();
-                if (card.isEmpty()) continue;
-                Pattern frontPattern = Pattern.compile("FRONT:\\s*(.+?)(?=BACK:|$)", Pattern.DOTALL);
-                Pattern backPattern = Pattern.compile("BACK:\\s*(.+?)(?=FRONT:|$)", Pattern.DOTALL);
-                Matcher frontMatcher = frontPattern.matcher(card);
-                Matcher backMatcher = backPattern.matcher(card);
-                if (frontMatcher.find() && backMatcher.find()) {
-                    String front = frontMatcher.group(1).trim();
-                    String back = backMatcher.group(1).trim();
-                    if (!front.isEmpty() && !back.isEmpty()) {
-                        flashcards.add(new FlashcardProposalDTO(front, back));
+            IncrementalFlashcardParser parser = new IncrementalFlashcardParser(listener);
+            Map<String, Object> requestBody = buildRequestBody(text, true);
+
+            restTemplate.execute(
+                baseUrl,
+                HttpMethod.POST,
+                request -> {
+                    request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                    request.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+                    request.getHeaders().set("Authorization", "Bearer " + apiKey);
+                    objectMapper.writeValue(request.getBody(), requestBody);
+                },
+                response -> {
+                    BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(response.getBody(), StandardCharsets.UTF_8));
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!line.startsWith("data:")) {
+                            continue; // blank separators and ": OPENROUTER PROCESSING" keep-alives
+                        }
+                        String data = line.substring(5).trim();
+                        if ("[DONE]".equals(data)) {
+                            break;
+                        }
+                        JsonNode chunk = objectMapper.readTree(data);
+                        // Usage arrives on the last chunk, when requested via stream_options
+                        recordUsage(chunk.path("usage"));
+                        JsonNode content = chunk.path("choices").path(0).path("delta").path("content");
+                        if (content.isTextual()) {
+                            parser.feed(content.asText());
+                        }
                     }
+                    return null;
                 }
+            );
+
+            if (!parser.getProposals().isEmpty()) {
+                return parser.getProposals();
             }
+            // The model did not answer with a JSON array; parse the whole response instead
+            List<FlashcardProposalDTO> flashcards = parseFlashcards(parser.getFullText());
+            flashcards.forEach(listener);
+            return flashcards;
+        } catch (Exception e) {
+            System.err.println("Error streaming flashcards (OpenRouter): " + e.getMessage());
+            throw new RuntimeException(e);
         }
-        return flashcards;
     }
 
+    private Map<String, Object> buildRequestBody(String text, boolean stream) {
+        List<Map<String, String>> messages = Arrays.asList(
+            Map.of("role", "system", "content", FlashcardPrompt.SYSTEM_PROMPT),
+            Map.of("role", "user", "content", FlashcardPrompt.buildUserPrompt(text))
+        );
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("messages", messages);
+        requestBody.put("temperature", 0.7);
+        requestBody.put("max_tokens", 2000);
+        if (stream) {
+            requestBody.put("stream", true);
+            requestBody.put("stream_options", Map.of("include_usage", true));
+        }
+        return requestBody;
+    }
+
+    private void recordUsage(JsonNode usage) {
+        if (usage != null && usage.isObject()) {
+            llmMetrics.recordTokens(getName(), getModel(),
+                usage.path("prompt_tokens").asLong(-1), usage.path("completion_tokens").asLong(-1));
+        }
+    }
+
+    List<FlashcardProposalDTO> parseFlashcards(String responseText) {
+        return FlashcardPrompt.parseFlashcards(responseText);
+    }
+
+    @Override
     public String getModel() {
         return model;
     }
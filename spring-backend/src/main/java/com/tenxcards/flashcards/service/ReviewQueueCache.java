@@ -0,0 +1,357 @@
+package com.tenxcards.flashcards.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tenxcards.flashcards.entity.Flashcard;
+import com.tenxcards.flashcards.entity.User;
+import com.tenxcards.flashcards.repository.FlashcardRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * In-process review queues, so that an active review session does not query
+ * the database for every "next card" or answer. On first use a user's
+ * warm-size soonest-due cards are loaded into a min-heap on due time; answers
+ * reschedule the cached card in place and are written back to the database in
+ * JDBC batches every write-back interval. Queues are dropped after idle-minutes
+ * without use, and the cached cards of all users are bounded by max-entries.
+ */
+@Component
+public class ReviewQueueCache {
+
+    private static final String UPDATE_SQL = "update flashcards set due_at = ?, interval_days = ?, ease_factor = ?, " +
+            "repetitions = ?, last_reviewed_at = ? where id = ? and user_id = ?";
+
+    private static final Comparator<Flashcard> BY_DUE_TIME =
+            Comparator.comparing(Flashcard::getDueAt).thenComparing(Flashcard::getId);
+
+    private final FlashcardRepository flashcardRepository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeBackTransaction;
+    private final boolean enabled;
+    private final int warmSize;
+    private final int batchSize;
+    private final Cache<UUID, UserQueue> queues;
+
+    // Answers not yet written back, oldest first; a failed batch is retried before them
+    private final ConcurrentLinkedQueue<PendingReview> pending = new ConcurrentLinkedQueue<>();
+    private final Map<Long, PendingReview> retry = new LinkedHashMap<>();
+    // Guards 'retry' and serializes write-backs; not a monitor, since the JDBC batch would pin a virtual thread
+    private final ReentrantLock writeBackLock = new ReentrantLock();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong reviews = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong writeBacks = new AtomicLong();
+    private final AtomicLong writeBackFailures = new AtomicLong();
+
+    public ReviewQueueCache(
+            FlashcardRepository flashcardRepository,
+            EntityManager entityManager,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${flashcards.review.queue.enabled:true}") boolean enabled,
+            @Value("${flashcards.review.queue.warm-size:200}") int warmSize,
+            @Value("${flashcards.review.queue.max-entries:200000}") long maxEntries,
+            @Value("${flashcards.review.queue.idle-minutes:30}") long idleMinutes,
+            @Value("${flashcards.review.queue.write-back-batch-size:100}") int batchSize) {
+        this.flashcardRepository = flashcardRepository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        // Written back in its own transaction, so a caller's rollback cannot lose the answers
+        this.writeBackTransaction = new TransactionTemplate(transactionManager);
+        this.writeBackTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.warmSize = warmSize;
+        this.batchSize = batchSize;
+        this.queues = Caffeine.newBuilder()
+                .maximumWeight(maxEntries)
+                .weigher((UUID userId, UserQueue queue) -> Math.max(1, queue.size()))
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Up to 'limit' of the user's cards due at 'now', most overdue first.
+     */
+    public List<Flashcard> nextDue(User user, int limit, LocalDateTime now) {
+        UserQueue queue = queueFor(user);
+        List<Flashcard> due;
+        synchronized (queue) {
+            due = queue.due(now, limit);
+        }
+        if (due != null) {
+            hits.incrementAndGet();
+            return due;
+        }
+        // Cards beyond the cached ones may be due by now: reload the soonest
+        reloads.incrementAndGet();
+        queues.invalidate(user.getId());
+        queue = queueFor(user);
+        synchronized (queue) {
+            due = queue.due(now, limit);
+        }
+        return due != null ? due : List.of();
+    }
+
+    /**
+     * Records an answer to a cached card and reschedules it in the queue. Empty if
+     * the user's queue is not loaded or does not hold the card; the caller then
+     * reviews the card in the database.
+     */
+    public Optional<Flashcard> review(User user, Long flashcardId, int grade, LocalDateTime now) {
+        UserQueue queue = queues.getIfPresent(user.getId());
+        if (queue == null) {
+            return Optional.empty();
+        }
+        synchronized (queue) {
+            Flashcard flashcard = queue.byId.get(flashcardId);
+            if (flashcard == null) {
+                return Optional.empty();
+            }
+            ReviewScheduler.review(flashcard, grade, now);
+            queue.reschedule(flashcard);
+            pending.add(new PendingReview(user.getId(), flashcard));
+            reviews.incrementAndGet();
+            return Optional.of(flashcard);
+        }
+    }
+
+    /**
+     * Writes back the user's pending answers. Call before reading one of the
+     * user's cards that is then saved whole, which would otherwise overwrite
+     * the pending scheduling state.
+     */
+    public void flush(User user) {
+        if (!enabled) {
+            return;
+        }
+        UUID userId = user.getId();
+        writeBackLock.lock();
+        try {
+            writeBackPending(review -> review.userId.equals(userId));
+        } finally {
+            writeBackLock.unlock();
+        }
+    }
+
+    /**
+     * Drops the user's queue, so it is reloaded on next use. Call after other
+     * writes to the user's cards; inside a transaction the queue is dropped once
+     * it commits, so a reload cannot pick up the cards as they were before.
+     */
+    public void invalidate(User user) {
+        if (!enabled) {
+            return;
+        }
+        UUID userId = user.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    queues.invalidate(userId);
+                }
+            });
+        } else {
+            queues.invalidate(userId);
+        }
+    }
+
+    /**
+     * Writes the pending answers of all users as JDBC batches. The latest answer
+     * per card wins.
+     */
+    @Scheduled(fixedDelayString = "${flashcards.review.queue.write-back-interval-ms:5000}")
+    public void writeBack() {
+        writeBackLock.lock();
+        try {
+            writeBackPending(review -> true);
+        } finally {
+            writeBackLock.unlock();
+        }
+    }
+
+    private void writeBackPending(Predicate<PendingReview> filter) {
+        if (pending.isEmpty() && retry.isEmpty()) {
+            return;
+        }
+        Map<Long, PendingReview> latest = new LinkedHashMap<>();
+        retry.values().removeIf(review -> take(review, filter, latest));
+        pending.removeIf(review -> take(review, filter, latest));
+        if (latest.isEmpty()) {
+            return;
+        }
+        List<PendingReview> batch = new ArrayList<>(latest.values());
+        try {
+            writeBackTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batchSize, (ps, row) -> {
+                        ps.setObject(1, row.dueAt);
+                        ps.setInt(2, row.intervalDays);
+                        ps.setDouble(3, row.easeFactor);
+                        ps.setInt(4, row.repetitions);
+                        ps.setObject(5, row.lastReviewedAt);
+                        ps.setLong(6, row.flashcardId);
+                        ps.setObject(7, row.userId);
+                    }));
+            rowsWritten.addAndGet(batch.size());
+            writeBacks.incrementAndGet();
+        } catch (Exception e) {
+            writeBackFailures.incrementAndGet();
+            System.err.println("Review write-back of " + batch.size() + " cards failed, will retry: " + e.getMessage());
+            latest.forEach(retry::put);
+        }
+    }
+
+    // Oldest first, so a later answer to the same card replaces an earlier one
+    private static boolean take(PendingReview review, Predicate<PendingReview> filter, Map<Long, PendingReview> latest) {
+        if (!filter.test(review)) {
+            return false;
+        }
+        latest.put(review.flashcardId, review);
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writeBack();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("queues", queues.estimatedSize());
+        result.put("hits", hits.get());
+        result.put("loads", loads.get());
+        result.put("reloads", reloads.get());
+        result.put("reviews", reviews.get());
+        result.put("pending_reviews", pending.size());
+        result.put("write_backs", writeBacks.get());
+        result.put("rows_written", rowsWritten.get());
+        result.put("write_back_failures", writeBackFailures.get());
+        return result;
+    }
+
+    /**
+     * Loads outside the cache's compute, which holds a monitor while the loader
+     * queries the database. Concurrent first requests of one user may both load;
+     * the first queue stored wins.
+     */
+    private UserQueue queueFor(User user) {
+        UserQueue queue = queues.getIfPresent(user.getId());
+        if (queue != null) {
+            return queue;
+        }
+        UserQueue loaded = load(user);
+        UserQueue existing = queues.asMap().putIfAbsent(user.getId(), loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private UserQueue load(User user) {
+        // Pending answers must reach the database before it is read again
+        flush(user);
+        List<Flashcard> soonest = flashcardRepository.findByUserOrderByDueAt(user, PageRequest.of(0, warmSize));
+        // The queue outlives this request's persistence context
+        soonest.forEach(entityManager::detach);
+        loads.incrementAndGet();
+        return new UserQueue(soonest, soonest.size() < warmSize);
+    }
+
+    /**
+     * The soonest-due cards of one user. Every card of the user that is not in the
+     * queue is due at or after 'boundary', unless the queue holds the whole deck.
+     */
+    private static final class UserQueue {
+        private final PriorityQueue<Flashcard> heap;
+        private final Map<Long, Flashcard> byId;
+        private final boolean wholeDeck;
+        private final LocalDateTime boundary;
+
+        private UserQueue(List<Flashcard> soonest, boolean wholeDeck) {
+            this.heap = new PriorityQueue<>(Math.max(1, soonest.size()), BY_DUE_TIME);
+            this.byId = new HashMap<>(soonest.size() * 2);
+            this.heap.addAll(soonest);
+            soonest.forEach(flashcard -> byId.put(flashcard.getId(), flashcard));
+            this.wholeDeck = wholeDeck;
+            this.boundary = soonest.isEmpty() ? null : soonest.get(soonest.size() - 1).getDueAt();
+        }
+
+        private int size() {
+            return byId.size();
+        }
+
+        /**
+         * Null when the queue cannot tell, i.e. fewer than 'limit' cached cards are
+         * due and uncached cards may be due as well.
+         */
+        private List<Flashcard> due(LocalDateTime now, int limit) {
+            List<Flashcard> due = new ArrayList<>(Math.min(limit, heap.size()));
+            while (due.size() < limit && !heap.isEmpty() && !heap.peek().getDueAt().isAfter(now)) {
+                due.add(heap.poll());
+            }
+            heap.addAll(due);
+            if (due.size() < limit && !wholeDeck && boundary != null && !now.isBefore(boundary)) {
+                return null;
+            }
+            return due;
+        }
+
+        // Called with the card's due time already changed
+        private void reschedule(Flashcard flashcard) {
+            heap.removeIf(card -> card == flashcard);
+            heap.add(flashcard);
+        }
+    }
+
+    private static final class PendingReview {
+        private final UUID userId;
+        private final long flashcardId;
+        private final LocalDateTime dueAt;
+        private final int intervalDays;
+        private final double easeFactor;
+        private final int repetitions;
+        private final LocalDateTime lastReviewedAt;
+
+        private PendingReview(UUID userId, Flashcard flashcard) {
+            this.userId = userId;
+            this.flashcardId = flashcard.getId();
+            this.dueAt = flashcard.getDueAt();
+            this.intervalDays = flashcard.getIntervalDays();
+            this.easeFactor = flashcard.getEaseFactor();
+            this.repetitions = flashcard.getRepetitions();
+            this.lastReviewedAt = flashcard.getLastReviewedAt();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.entity.Flashcard;
+
+import java.time.LocalDateTime;
+
+/**
+ * SM-2 scheduling. A review is graded 0-5; grades below 3 are lapses that restart
+ * the card at a one day interval, passing grades grow the interval 1, 6, then by
+ * the ease factor. The ease factor moves with every grade and never drops below 1.3.
+ */
+public final class ReviewScheduler {
+
+    public static final int MIN_GRADE = 0;
+    public static final int MAX_GRADE = 5;
+    public static final int PASSING_GRADE = 3;
+
+    static final double MIN_EASE_FACTOR = 1.3;
+
+    private ReviewScheduler() {
+    }
+
+    /**
+     * Records a review with the given grade at 'now' and sets the card's next due time.
+     */
+    public static void review(Flashcard flashcard, int grade, LocalDateTime now) {
+        if (grade < MIN_GRADE || grade > MAX_GRADE) {
+            throw new IllegalArgumentException("Grade must be between " + MIN_GRADE + " and " + MAX_GRADE);
+        }
+
+        int repetitions = flashcard.getRepetitions() != null ? flashcard.getRepetitions() : 0;
+        int interval = flashcard.getIntervalDays() != null ? flashcard.getIntervalDays() : 0;
+        double ease = flashcard.getEaseFactor() != null ? flashcard.getEaseFactor() : 2.5;
+
+        if (grade < PASSING_GRADE) {
+            repetitions = 0;
+            interval = 1;
+        } else {
+            repetitions++;
+            if (repetitions == 1) {
+                interval = 1;
+            } else if (repetitions == 2) {
+                interval = 6;
+            } else {
+                interval = (int) Math.round(interval * ease);
+            }
+        }
+
+        int miss = MAX_GRADE - grade;
+        ease = Math.max(MIN_EASE_FACTOR, ease + 0.1 - miss * (0.08 + miss * 0.02));
+
+        flashcard.setRepetitions(repetitions);
+        flashcard.setIntervalDays(interval);
+        flashcard.setEaseFactor(ease);
+        flashcard.setLastReviewedAt(now);
+        flashcard.setDueAt(now.plusDays(interval));
+    }
+}
@@ -0,0 +1,62 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.entity.Flashcard;
+import com.tenxcards.flashcards.entity.User;
+import com.tenxcards.flashcards.repository.FlashcardRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Review sessions: the queue of cards due now and the recording of answers,
+ * scheduled by {@link ReviewScheduler}. Served from the in-memory
+ * {@link ReviewQueueCache} when it is enabled, from the database otherwise.
+ */
+@Service
+public class ReviewService {
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private ReviewQueueCache reviewQueue;
+
+    /**
+     * Up to 'limit' of the user's cards that are due, most overdue first.
+     */
+    public List<Flashcard> findDue(User user, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        if (reviewQueue.isEnabled()) {
+            return reviewQueue.nextDue(user, limit, now);
+        }
+        return flashcardRepository.findDue(user, now, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Records the answer to one of the user's cards and reschedules it.
+     * Empty if the card does not exist or belongs to another user.
+     */
+    public Optional<Flashcard> review(User user, Long flashcardId, int grade) {
+        LocalDateTime now = LocalDateTime.now();
+        if (reviewQueue.isEnabled()) {
+            Optional<Flashcard> cached = reviewQueue.review(user, flashcardId, grade, now);
+            if (cached.isPresent()) {
+                return cached;
+            }
+            // An answer from an earlier queue may still be pending for this card
+            reviewQueue.flush(user);
+        }
+        Optional<Flashcard> flashcard = flashcardRepository.findByIdAndUser(flashcardId, user);
+        flashcard.ifPresent(card -> {
+            ReviewScheduler.review(card, grade, now);
+            flashcardRepository.save(card);
+            // Not in the cached queue: the new due time may belong in it, so reload it next time
+            reviewQueue.invalidate(user);
+        });
+        return flashcard;
+    }
+}
@@ -0,0 +1,182 @@
+package com.tenxcards.flashcards.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking client for the Supabase Auth (GoTrue) API, with its own pooled
+ * connections and connect/read timeouts. Each call is timed as
+ * 'supabase.auth.requests' tagged with the endpoint and outcome. Availability is
+ * checked in the background every health interval and cached, so requests never
+ * wait for a probe.
+ */
+@Component
+public class SupabaseAuthClient {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT = new ParameterizedTypeReference<>() {};
+
+    private final WebClient webClient;
+    private final String anonKey;
+    private final MeterRegistry meterRegistry;
+    private final Duration healthTimeout;
+    private final AtomicBoolean healthCheckRunning = new AtomicBoolean();
+
+    private volatile HealthStatus health = new HealthStatus(null, null, null, 0);
+
+    public SupabaseAuthClient(
+            @Value("${supabase.url}") String supabaseUrl,
+            @Value("${supabase.anon-key}") String supabaseAnonKey,
+            @Value("${supabase.client.connect-timeout-ms:3000}") int connectTimeoutMs,
+            @Value("${supabase.client.read-timeout-ms:10000}") long readTimeoutMs,
+            @Value("${supabase.client.max-connections:50}") int maxConnections,
+            @Value("${supabase.client.pending-acquire-timeout-ms:5000}") long pendingAcquireTimeoutMs,
+            @Value("${supabase.health.timeout-ms:5000}") long healthTimeoutMs,
+            MeterRegistry meterRegistry) {
+        ConnectionProvider connections = ConnectionProvider.builder("supabase-auth")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMinutes(5))
+                .build();
+        HttpClient httpClient = HttpClient.create(connections)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs));
+        this.webClient = WebClient.builder()
+                .baseUrl(supabaseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .defaultHeader("apikey", supabaseAnonKey)
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024))
+                .build();
+        this.anonKey = supabaseAnonKey;
+        this.meterRegistry = meterRegistry;
+        this.healthTimeout = Duration.ofMillis(healthTimeoutMs);
+        Gauge.builder("supabase.auth.up", this, client -> {
+                    Boolean up = client.health.up();
+                    return up == null ? Double.NaN : up ? 1 : 0;
+                })
+                .description("Result of the last Supabase Auth health check (NaN before the first)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * POST /auth/v1/token?grant_type=password
+     */
+    public Mono<Map<String, Object>> passwordGrant(String email, String password) {
+        return timed("token", webClient.post()
+                .uri("/auth/v1/token?grant_type=password")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("email", email, "password", password))
+                .retrieve()
+                .bodyToMono(JSON_OBJECT));
+    }
+
+    /**
+     * POST /auth/v1/signup
+     */
+    public Mono<Map<String, Object>> signup(String email, String password, String emailRedirectTo) {
+        return timed("signup", webClient.post()
+                .uri("/auth/v1/signup")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + anonKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of(
+                        "email", email,
+                        "password", password,
+                        "options", Map.of("emailRedirectTo", emailRedirectTo)))
+                .retrieve()
+                .bodyToMono(JSON_OBJECT));
+    }
+
+    /**
+     * Probes GET /auth/v1/settings and caches the result. A probe still running
+     * when the next one is due is not duplicated.
+     */
+    @Scheduled(fixedDelayString = "${supabase.health.interval-ms:30000}", initialDelay = 0)
+    public void checkHealth() {
+        if (!healthCheckRunning.compareAndSet(false, true)) {
+            return;
+        }
+        timed("settings", webClient.get()
+                .uri("/auth/v1/settings")
+                .retrieve()
+                .bodyToMono(JSON_OBJECT))
+                .timeout(healthTimeout)
+                .map(settings -> true)
+                .defaultIfEmpty(true)
+                .subscribe(
+                        up -> {
+                            healthCheckRunning.set(false);
+                            health = new HealthStatus(true, Instant.now(), null, 0);
+                        },
+                        e -> {
+                            healthCheckRunning.set(false);
+                            HealthStatus previous = health;
+                            health = new HealthStatus(false, Instant.now(), e.getMessage(), previous.consecutiveFailures() + 1);
+                            System.err.println("Supabase Auth health check failed: " + e.getMessage());
+                        });
+    }
+
+    /**
+     * Result of the last background probe; 'up' is null until the first one finished.
+     */
+    public HealthStatus getHealth() {
+        return health;
+    }
+
+    public Map<String, Object> getStats() {
+        HealthStatus status = health;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("up", status.up());
+        result.put("checked_at", status.checkedAt());
+        result.put("consecutive_failures", status.consecutiveFailures());
+        result.put("last_error", status.lastError());
+        return result;
+    }
+
+    private <T> Mono<T> timed(String endpoint, Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call
+                    .doOnSuccess(result -> record(endpoint, "success", start))
+                    .doOnError(e -> record(endpoint, outcome(e), start))
+                    .doOnCancel(() -> record(endpoint, "cancelled", start));
+        });
+    }
+
+    private void record(String endpoint, String outcome, long startNanos) {
+        Timer.builder("supabase.auth.requests")
+                .description("Calls to the Supabase Auth API")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String outcome(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().is4xxClientError() ? "client_error" : "server_error";
+        }
+        return "error";
+    }
+
+    public record HealthStatus(Boolean up, Instant checkedAt, String lastError, int consecutiveFailures) {}
+}
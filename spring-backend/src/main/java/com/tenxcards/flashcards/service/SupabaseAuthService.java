@@ -6,158 +6,86 @@ import com.tenxcards.flashcards.dto.RegisterUserCommand;
 import com.tenxcards.flashcards.security.JwtTokenProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
 import java.util.Map;
 
+/**
+ * Login and registration against Supabase Auth. Each is a single non-blocking
+ * call through {@link SupabaseAuthClient}; availability is monitored by the
+ * client in the background rather than probed per login.
+ */
 @Service
 public class SupabaseAuthService {
     
-    private final WebClient webClient;
+    private final SupabaseAuthClient authClient;
     private final JwtTokenProvider jwtTokenProvider;
     
-    @Value("${supabase.url}")
-    private String supabaseUrl;
-    
-    @Value("${supabase.anon-key}")
-    private String supabaseAnonKey;
-    
     @Value("${frontend.url:http://localhost:5173}")
     private String frontendUrl;
     
     @Autowired
-    public SupabaseAuthService(WebClient.Builder webClientBuilder, JwtTokenProvider jwtTokenProvider) {
-        this.webClient = webClientBuilder
-                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024))
-                .build();
+    public SupabaseAuthService(SupabaseAuthClient authClient, JwtTokenProvider jwtTokenProvider) {
+        this.authClient = authClient;
         this.jwtTokenProvider = jwtTokenProvider;
     }
     
-    public LoginUserResponseDTO login(LoginUserCommand command) {
-        try {
-            System.out.println("SupabaseAuthService: Starting login for " + command.getEmail());
-            System.out.println("Supabase URL: " + supabaseUrl);
-            System.out.println("Supabase Anon Key: " + (supabaseAnonKey != null ? supabaseAnonKey.substring(0, 20) + "..." : "null"));
-            
-            // Test if API key works by hitting a simple endpoint first
-            try {
-                Map<String, Object> healthCheck = webClient.get()
-                        .uri(supabaseUrl + "/auth/v1/settings")
-                        .header("apikey", supabaseAnonKey)
-                        .retrieve()
-                        .bodyToMono(Map.class)
-                        .block();
-                System.out.println("Health check successful: " + healthCheck);
-            } catch (Exception e) {
-                System.out.println("Health check failed: " + e.getMessage());
-            }
-            
-            Map<String, Object> requestBody = Map.of(
-                    "email", command.getEmail(),
-                    "password", command.getPassword()
-            );
-            
-            // Try the correct endpoint based on GoTrue API
-            System.out.println("Making request to: " + supabaseUrl + "/auth/v1/token?grant_type=password");
-            
-            Map<String, Object> response = webClient.post()
-                    .uri(supabaseUrl + "/auth/v1/token?grant_type=password")
-                    .header("apikey", supabaseAnonKey)
-                    .header("Content-Type", "application/json")
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .block();
-            
-            System.out.println("Supabase response received: " + (response != null ? "success" : "null"));
-            
-            if (response == null || !response.containsKey("user")) {
-                throw new RuntimeException("Authentication failed - no user data received");
-            }
-            
-            Map<String, Object> user = (Map<String, Object>) response.get("user");
-            String userId = (String) user.get("id");
-            String email = (String) user.get("email");
-            
-            if (userId == null || email == null) {
-                throw new RuntimeException("Authentication failed - invalid user data");
-            }
-            
-            // Generate our own JWT token
-            String token = jwtTokenProvider.generateToken(userId, email, "");
-            
-            LoginUserResponseDTO.UserDTO userInfo = new LoginUserResponseDTO.UserDTO();
-            userInfo.setId(userId);
-            userInfo.setEmail(email);
-            
-            LoginUserResponseDTO loginResponse = new LoginUserResponseDTO();
-            loginResponse.setToken(token);
-            loginResponse.setUser(userInfo);
-            
-            return loginResponse;
-            
-        } catch (WebClientResponseException e) {
-            throw new RuntimeException("Authentication failed: " + extractErrorMessage(e));
-        } catch (Exception e) {
-            throw new RuntimeException("Authentication failed: " + e.getMessage());
-        }
+    public Mono<LoginUserResponseDTO> login(LoginUserCommand command) {
+        return authClient.passwordGrant(command.getEmail(), command.getPassword())
+                .map(response -> {
+                    if (!response.containsKey("user")) {
+                        throw new RuntimeException("Authentication failed - no user data received");
+                    }
+                    
+                    Map<String, Object> user = (Map<String, Object>) response.get("user");
+                    String userId = (String) user.get("id");
+                    String email = (String) user.get("email");
+                    
+                    if (userId == null || email == null) {
+                        throw new RuntimeException("Authentication failed - invalid user data");
+                    }
+                    
+                    // Generate our own JWT token
+                    String token = jwtTokenProvider.generateToken(userId, email, "");
+                    
+                    LoginUserResponseDTO.UserDTO userInfo = new LoginUserResponseDTO.UserDTO();
+                    userInfo.setId(userId);
+                    userInfo.setEmail(email);
+                    
+                    LoginUserResponseDTO loginResponse = new LoginUserResponseDTO();
+                    loginResponse.setToken(token);
+                    loginResponse.setUser(userInfo);
+                    
+                    return loginResponse;
+                })
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Authentication failed - no user data received")))
+                .onErrorMap(e -> new RuntimeException("Authentication failed: " + errorMessage(e)));
     }
     
-    public Map<String, Object> register(RegisterUserCommand command) {
-        System.out.println("SupabaseAuthService: Starting registration for " + command.getEmail() + " with password " + command.getPassword());
-        System.out.println("Frontend URL: " + frontendUrl);
-        try {
-            Map<String, Object> requestBody = Map.of(
-                    "email", command.getEmail(),
-                    "password", command.getPassword(),
-                    "options", Map.of(
-                            "emailRedirectTo", frontendUrl + "/auth/callback"
-                    )
-            );
-
-            System.out.println("Making request to: " + supabaseUrl + "/auth/v1/signup");
-            
-            Map<String, Object> response = webClient.post()
-                    .uri(supabaseUrl + "/auth/v1/signup")
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + supabaseAnonKey)
-                    .header("apikey", supabaseAnonKey)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .block();
-            
-            System.out.println("Supabase response received: " + (response != null ? "success" : "null"));
-            
-            if (response == null || !response.containsKey("user_metadata")) {
-                throw new RuntimeException("Registration failed - no user data received");
-            }
-            
-            Map<String, Object> userMetadata = (Map<String, Object>) response.get("user_metadata");
-            // Check if email confirmation is needed
-            boolean emailVerified = (boolean) userMetadata.get("email_verified");
-            if (emailVerified) {
-                throw new RuntimeException("This email is already registered. Please check your email for the confirmation link or try logging in.");
-            }
-
-            System.out.println("User: " + userMetadata);
-            
-            System.out.println("Returning requiresEmailConfirmation true");
-            return Map.of(
-                    "user", userMetadata,
-                    "requiresEmailConfirmation", true,
-                    "message", "Please check your email for a confirmation link to complete your registration."
-            );
-            
-        } catch (WebClientResponseException e) {
-            throw new RuntimeException("Registration failed: " + extractErrorMessage(e));
-        } catch (Exception e) {
-            throw new RuntimeException("Registration failed: " + e.getMessage());
-        }
+    public Mono<Map<String, Object>> register(RegisterUserCommand command) {
+        return authClient.signup(command.getEmail(), command.getPassword(), frontendUrl + "/auth/callback")
+                .map(response -> {
+                    if (!response.containsKey("user_metadata")) {
+                        throw new RuntimeException("Registration failed - no user data received");
+                    }
+                    
+                    Map<String, Object> userMetadata = (Map<String, Object>) response.get("user_metadata");
+                    // Check if email confirmation is needed
+                    boolean emailVerified = Boolean.TRUE.equals(userMetadata.get("email_verified"));
+                    if (emailVerified) {
+                        throw new RuntimeException("This email is already registered. Please check your email for the confirmation link or try logging in.");
+                    }
+                    
+                    return Map.<String, Object>of(
+                            "user", userMetadata,
+                            "requiresEmailConfirmation", true,
+                            "message", "Please check your email for a confirmation link to complete your registration."
+                    );
+                })
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Registration failed - no user data received")))
+                .onErrorMap(e -> new RuntimeException("Registration failed: " + errorMessage(e)));
     }
     
     public Map<String, String> recover(String email) {
@@ -171,6 +99,10 @@ public class SupabaseAuthService {
         return Map.of("message", "Logged out successfully");
     }
     
+    private String errorMessage(Throwable e) {
+        return e instanceof WebClientResponseException response ? extractErrorMessage(response) : e.getMessage();
+    }
+    
     private String extractErrorMessage(WebClientResponseException e) {
         try {
             String responseBody = e.getResponseBodyAsString();
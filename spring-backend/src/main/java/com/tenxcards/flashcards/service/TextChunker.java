@@ -0,0 +1,114 @@
+package com.tenxcards.flashcards.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Splits long source text into chunks of at most maxChunkSize characters for
+ * chunked generation. Chunks end on paragraph boundaries where possible, then
+ * on sentence boundaries; only a single over-long sentence is cut mid-text.
+ * Each chunk repeats up to overlap characters of trailing sentences from the
+ * previous one so facts spanning a boundary are seen whole at least once.
+ */
+public class TextChunker {
+
+    private static final Pattern PARAGRAPH_BREAK = Pattern.compile("\\n\\s*\\n");
+    private static final Pattern SENTENCE_END = Pattern.compile("(?<=[.!?])\\s+");
+
+    private final int maxChunkSize;
+    private final int overlap;
+
+    public TextChunker(int maxChunkSize, int overlap) {
+        if (overlap >= maxChunkSize) {
+            throw new IllegalArgumentException("Chunk overlap must be smaller than the chunk size");
+        }
+        this.maxChunkSize = maxChunkSize;
+        this.overlap = overlap;
+    }
+
+    public List<String> split(String text) {
+        String trimmed = text.strip();
+        if (trimmed.length() <= maxChunkSize) {
+            return List.of(trimmed);
+        }
+
+        List<String> chunks = new ArrayList<>();
+        List<Segment> current = new ArrayList<>();
+        int currentLength = 0;
+        for (Segment segment : segments(trimmed)) {
+            int added = current.isEmpty() ? segment.text().length() : segment.separator().length() + segment.text().length();
+            boolean full = currentLength + added > maxChunkSize;
+            // Prefer ending a well-filled chunk where a new paragraph starts
+            boolean paragraphBreak = segment.startsParagraph() && currentLength >= maxChunkSize * 3 / 4;
+            if (!current.isEmpty() && (full || paragraphBreak)) {
+                chunks.add(join(current));
+                current = overlapTail(current, maxChunkSize - segment.text().length() - segment.separator().length());
+                currentLength = join(current).length();
+                added = current.isEmpty() ? segment.text().length() : segment.separator().length() + segment.text().length();
+            }
+            current.add(segment);
+            currentLength += added;
+        }
+        if (!current.isEmpty()) {
+            chunks.add(join(current));
+        }
+        return chunks;
+    }
+
+    /**
+     * Trailing sentences of a finished chunk, totalling at most overlap
+     * characters, that are carried into the next chunk. Each sentence is
+     * counted with its separator, so paragraph breaks count as two characters.
+     */
+    private List<Segment> overlapTail(List<Segment> chunk, int room) {
+        int budget = Math.min(overlap, room);
+        int length = 0;
+        int start = chunk.size();
+        while (start > 0) {
+            Segment segment = chunk.get(start - 1);
+            int next = length + segment.text().length() + segment.separator().length();
+            if (next > budget) {
+                break;
+            }
+            length = next;
+            start--;
+        }
+        return new ArrayList<>(chunk.subList(start, chunk.size()));
+    }
+
+    private List<Segment> segments(String text) {
+        List<Segment> segments = new ArrayList<>();
+        for (String paragraph : PARAGRAPH_BREAK.split(text)) {
+            boolean startsParagraph = true;
+            for (String sentence : SENTENCE_END.split(paragraph.strip())) {
+                if (sentence.isEmpty()) {
+                    continue;
+                }
+                for (int start = 0; start < sentence.length(); start += maxChunkSize) {
+                    String piece = sentence.substring(start, Math.min(sentence.length(), start + maxChunkSize));
+                    segments.add(new Segment(piece, startsParagraph));
+                    startsParagraph = false;
+                }
+            }
+        }
+        return segments;
+    }
+
+    private static String join(List<Segment> segments) {
+        StringBuilder sb = new StringBuilder();
+        for (Segment segment : segments) {
+            if (sb.length() > 0) {
+                sb.append(segment.separator());
+            }
+            sb.append(segment.text());
+        }
+        return sb.toString();
+    }
+
+    private record Segment(String text, boolean startsParagraph) {
+        String separator() {
+            return startsParagraph ? "\n\n" : " ";
+        }
+    }
+}
@@ -1,14 +1,25 @@
 package com.tenxcards.flashcards.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
 import com.tenxcards.flashcards.entity.User;
 import com.tenxcards.flashcards.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class UserService implements UserDetailsService {
@@ -16,6 +27,36 @@ public class UserService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
     
+    @Value("${auth.principal-cache.enabled:true}")
+    private boolean principalCacheEnabled;
+    
+    @Value("${auth.principal-cache.max-size:10000}")
+    private long principalCacheMaxSize;
+    
+    @Value("${auth.principal-cache.ttl-seconds:300}")
+    private long principalCacheTtlSeconds;
+    
+    /**
+     * Principals of authenticated requests by user id, so that steady-state requests
+     * do not query auth.users. Users not found are not cached.
+     */
+    private Cache<UUID, User> principalCache;
+    
+    // Loads are recorded here by loadUserById, which loads outside the cache
+    private final ConcurrentStatsCounter principalCacheStats = new ConcurrentStatsCounter();
+    
+    // Bumped by every invalidation, so a load that raced one is not cached
+    private final AtomicLong principalInvalidations = new AtomicLong();
+    
+    @PostConstruct
+    void initPrincipalCache() {
+        principalCache = Caffeine.newBuilder()
+                .maximumSize(principalCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(principalCacheTtlSeconds))
+                .recordStats(() -> principalCacheStats)
+                .build();
+    }
+    
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         return userRepository.findByEmail(email)
@@ -23,8 +64,60 @@ public class UserService implements UserDetailsService {
     }
     
     public UserDetails loadUserById(UUID id) {
-        return userRepository.findById(id)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
+        if (!principalCacheEnabled) {
+            return userRepository.findById(id)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
+        }
+        User cached = principalCache.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        // Not Cache.get(id, loader): the loader would query the database inside the cache's
+        // compute, holding a monitor that pins a virtual thread to its carrier
+        long invalidations = principalInvalidations.get();
+        long start = System.nanoTime();
+        User user;
+        try {
+            user = userRepository.findById(id)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
+        } catch (RuntimeException e) {
+            principalCacheStats.recordLoadFailure(System.nanoTime() - start);
+            throw e;
+        }
+        principalCacheStats.recordLoadSuccess(System.nanoTime() - start);
+        if (principalInvalidations.get() == invalidations) {
+            principalCache.put(id, user);
+        }
+        return user;
+    }
+    
+    /**
+     * Drops the cached principal so the next request reloads it, e.g. after login,
+     * logout or a change to the user row.
+     */
+    public void invalidatePrincipal(UUID id) {
+        principalInvalidations.incrementAndGet();
+        principalCache.invalidate(id);
+    }
+    
+    public void invalidateAllPrincipals() {
+        principalInvalidations.incrementAndGet();
+        principalCache.invalidateAll();
+    }
+    
+    public Map<String, Object> getPrincipalCacheStats() {
+        CacheStats stats = principalCache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", principalCacheEnabled);
+        result.put("size", principalCache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hit_ratio", stats.hitRate());
+        result.put("loads", stats.loadCount());
+        result.put("load_failures", stats.loadFailureCount());
+        result.put("average_load_ms", TimeUnit.NANOSECONDS.toMillis((long) stats.averageLoadPenalty()));
+        result.put("evictions", stats.evictionCount());
+        return result;
     }
     
     public User findByEmail(String email) {
@@ -40,6 +133,8 @@ public class UserService implements UserDetailsService {
     }
     
     public User save(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        invalidatePrincipal(saved.getId());
+        return saved;
     }
 }
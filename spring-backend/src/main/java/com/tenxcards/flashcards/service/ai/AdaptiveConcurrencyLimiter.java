@@ -0,0 +1,88 @@
+package com.tenxcards.flashcards.service.ai;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * AIMD concurrency limit for one provider. The limit grows by 1/limit for
+ * every fast successful call and shrinks by backoffRatio on every failure or
+ * call slower than latencyThresholdMs. Calls beyond the current limit are
+ * refused immediately instead of queueing.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdMs;
+    private final double backoffRatio;
+
+    private double limit;
+    private int inFlight;
+    private long rejectedCalls;
+
+    public AdaptiveConcurrencyLimiter(int minLimit, int maxLimit, long latencyThresholdMs, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdMs = latencyThresholdMs;
+        this.backoffRatio = backoffRatio;
+        this.limit = maxLimit;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            rejectedCalls++;
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void onSuccess(long latencyMs) {
+        inFlight--;
+        if (latencyMs > latencyThresholdMs) {
+            decrease();
+        } else {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    public synchronized void onFailure() {
+        inFlight--;
+        decrease();
+    }
+
+    /**
+     * Ends a call without adjusting the limit, e.g. when it was cancelled.
+     */
+    public synchronized void release() {
+        inFlight--;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Calls that would be admitted right now.
+     */
+    public synchronized int getAvailable() {
+        return Math.max(0, (int) limit - inFlight);
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("limit", (int) limit);
+        stats.put("max_limit", maxLimit);
+        stats.put("in_flight", inFlight);
+        stats.put("rejected_calls", rejectedCalls);
+        return stats;
+    }
+
+    private void decrease() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+}
@@ -0,0 +1,48 @@
+package com.tenxcards.flashcards.service.ai;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Retries a provider call refused by the provider's concurrency limit with
+ * exponential backoff, for up to maxWaitMs. Used by work that already runs off
+ * the request thread (generation jobs, streams, chunks), which would otherwise
+ * fail although its executor accepted it; request threads keep failing fast.
+ */
+public final class CapacityWait {
+
+    private static final long INITIAL_BACKOFF_MS = 50;
+    private static final long MAX_BACKOFF_MS = 1000;
+
+    private CapacityWait() {}
+
+    public static <T> T call(Supplier<T> call, long maxWaitMs) {
+        return call(call, maxWaitMs, () -> false);
+    }
+
+    /**
+     * @param cancelled checked before every retry; once set, the last refusal is rethrown
+     * @throws ProviderAtCapacityException if the provider is still at its limit after maxWaitMs
+     */
+    public static <T> T call(Supplier<T> call, long maxWaitMs, BooleanSupplier cancelled) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        long backoffMs = INITIAL_BACKOFF_MS;
+        while (true) {
+            try {
+                return call.get();
+            } catch (ProviderAtCapacityException e) {
+                if (cancelled.getAsBoolean() || System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs) > deadline) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.tenxcards.flashcards.service.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import io.netty.channel.ChannelOption;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking client for an OpenAI-compatible chat completions endpoint
+ * (OpenAI, OpenRouter). Requests run on the Reactor Netty event loop with a
+ * dedicated connection pool, so an in-flight generation holds no thread while
+ * the model is answering.
+ */
+public class ChatCompletionWebClient {
+
+    private final String provider;
+    private final WebClient webClient;
+    private final LlmMetrics llmMetrics;
+
+    public ChatCompletionWebClient(String provider, String url, String apiKey, long connectTimeoutSeconds,
+                                   long timeoutSeconds, int maxConnections, LlmMetrics llmMetrics) {
+        this.provider = provider;
+        this.llmMetrics = llmMetrics;
+        ConnectionProvider connections = ConnectionProvider.builder(provider + "-completions")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .maxIdleTime(Duration.ofMinutes(5))
+                .build();
+        HttpClient httpClient = HttpClient.create(connections)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) Duration.ofSeconds(connectTimeoutSeconds).toMillis())
+                .responseTimeout(Duration.ofSeconds(timeoutSeconds));
+        this.webClient = WebClient.builder()
+                .baseUrl(url)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                .build();
+    }
+
+    /**
+     * Asks the model for flashcards and parses its answer. Errors (HTTP status,
+     * timeout) are signalled as the Mono's error.
+     */
+    public Mono<List<FlashcardProposalDTO>> generateFlashcards(String model, String text) {
+        Map<String, Object> requestBody = Map.of(
+                "model", model,
+                "messages", List.of(
+                        Map.of("role", "system", "content", FlashcardPrompt.SYSTEM_PROMPT),
+                        Map.of("role", "user", "content", FlashcardPrompt.buildUserPrompt(text))),
+                "temperature", 0.7,
+                "max_tokens", 2000);
+
+        return webClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .map(body -> {
+                    JsonNode usage = body.path("usage");
+                    if (usage.isObject()) {
+                        llmMetrics.recordTokens(provider, model,
+                                usage.path("prompt_tokens").asLong(-1), usage.path("completion_tokens").asLong(-1));
+                    }
+                    JsonNode content = body.path("choices").path(0).path("message").path("content");
+                    return content.isTextual() ? FlashcardPrompt.parseFlashcards(content.asText()) : new ArrayList<FlashcardProposalDTO>();
+                });
+    }
+}
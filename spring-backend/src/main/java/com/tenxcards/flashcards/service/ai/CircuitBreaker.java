@@ -0,0 +1,205 @@
+package com.tenxcards.flashcards.service.ai;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-provider circuit breaker over a count-based window of recent calls.
+ *
+ * CLOSED: calls pass; once the window holds at least minCalls outcomes and the
+ * failure rate reaches the threshold the breaker opens.
+ * OPEN: calls are refused until openDuration has elapsed.
+ * HALF_OPEN: a limited number of trial calls pass; a success closes the
+ * breaker, a failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int windowSize;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenTrials;
+    private final LongSupplier nanoClock;
+
+    private final boolean[] window;
+    private int windowNext;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenInFlight;
+    // Bumped on every transition, so a permit can tell whether the state it was admitted in has ended
+    private long period;
+
+    private final Map<String, Long> transitions = new LinkedHashMap<>();
+    private long rejectedCalls;
+
+    public CircuitBreaker(String name, int windowSize, int minCalls, double failureRateThreshold,
+                          Duration openDuration, int halfOpenTrials) {
+        this(name, windowSize, minCalls, failureRateThreshold, openDuration, halfOpenTrials, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int windowSize, int minCalls, double failureRateThreshold,
+                   Duration openDuration, int halfOpenTrials, LongSupplier nanoClock) {
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minCalls = minCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenTrials = halfOpenTrials;
+        this.nanoClock = nanoClock;
+        this.window = new boolean[windowSize];
+    }
+
+    /**
+     * Returns null if the call must be refused. A permit must be handed back
+     * to exactly one of onSuccess, onFailure or release.
+     */
+    public synchronized Permit tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAtNanos < openDurationNanos) {
+                rejectedCalls++;
+                return null;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight >= halfOpenTrials) {
+                rejectedCalls++;
+                return null;
+            }
+            halfOpenInFlight++;
+        }
+        return new Permit(state, period);
+    }
+
+    public synchronized void onSuccess(Permit permit) {
+        if (isStale(permit)) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            halfOpenInFlight--;
+            resetWindow();
+            transitionTo(State.CLOSED);
+            return;
+        }
+        recordOutcome(false);
+    }
+
+    public synchronized void onFailure(Permit permit) {
+        if (isStale(permit)) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            halfOpenInFlight--;
+            open();
+            return;
+        }
+        recordOutcome(true);
+        if (windowCount >= minCalls && (double) windowFailures / windowCount >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * Ends a permitted call without recording an outcome, e.g. when it was
+     * cancelled or refused by a later check.
+     */
+    public synchronized void release(Permit permit) {
+        if (!isStale(permit) && state == State.HALF_OPEN) {
+            halfOpenInFlight--;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Time until an open breaker lets trial calls through, zero otherwise.
+     */
+    public synchronized long getRetryAfterMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        long remaining = openDurationNanos - (nanoClock.getAsLong() - openedAtNanos);
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(remaining));
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state.name().toLowerCase());
+        stats.put("failure_rate", windowCount == 0 ? 0.0 : (double) windowFailures / windowCount);
+        stats.put("rejected_calls", rejectedCalls);
+        stats.put("transitions", new LinkedHashMap<>(transitions));
+        return stats;
+    }
+
+    /**
+     * A call admitted before the last transition, e.g. while CLOSED and finishing
+     * after the breaker went HALF_OPEN, says nothing about the current state and
+     * holds no trial slot in it, so its outcome is dropped.
+     */
+    private boolean isStale(Permit permit) {
+        return permit.period != period;
+    }
+
+    private void open() {
+        openedAtNanos = nanoClock.getAsLong();
+        transitionTo(State.OPEN);
+    }
+
+    private void recordOutcome(boolean failure) {
+        if (windowCount == windowSize && window[windowNext]) {
+            windowFailures--;
+        }
+        window[windowNext] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % windowSize;
+        windowCount = Math.min(windowCount + 1, windowSize);
+    }
+
+    private void resetWindow() {
+        windowNext = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+
+    private void transitionTo(State next) {
+        if (state == next) {
+            return;
+        }
+        String key = state.name().toLowerCase() + "_to_" + next.name().toLowerCase();
+        transitions.merge(key, 1L, Long::sum);
+        System.out.println("Circuit breaker for provider " + name + ": " + state + " -> " + next);
+        state = next;
+        period++;
+        halfOpenInFlight = 0;
+    }
+
+    /**
+     * Handed out by tryAcquire; remembers the state the call was admitted in.
+     */
+    public static final class Permit {
+        private final State state;
+        private final long period;
+
+        private Permit(State state, long period) {
+            this.state = state;
+            this.period = period;
+        }
+
+        public State getState() {
+            return state;
+        }
+    }
+}
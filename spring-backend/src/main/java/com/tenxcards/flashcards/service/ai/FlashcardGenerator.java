@@ -0,0 +1,85 @@
+package com.tenxcards.flashcards.service.ai;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An AI provider that turns source text into flashcard proposals.
+ *
+ * Implementations are Spring beans and are picked up by
+ * {@link FlashcardGeneratorRegistry}; the active one is chosen by name through
+ * the 'aiprovider' property. Prompt construction and response parsing are
+ * shared through {@link FlashcardPrompt}.
+ */
+public interface FlashcardGenerator {
+
+    /**
+     * Name used in the 'aiprovider' property, e.g. "openai".
+     */
+    String getName();
+
+    String getModel();
+
+    /**
+     * Models whose answers this generator may return. Cached results of any of them
+     * can be served in its place.
+     */
+    default List<String> getModels() {
+        return List.of(getModel());
+    }
+
+    List<FlashcardProposalDTO> generateFlashcards(String text);
+
+    /**
+     * Generates flashcards, handing each one to the listener as soon as it is available.
+     * Providers without a streaming API deliver all of them once the call completes.
+     */
+    default List<FlashcardProposalDTO> streamFlashcards(String text, Consumer<FlashcardProposalDTO> listener) {
+        List<FlashcardProposalDTO> flashcards = generateFlashcards(text);
+        flashcards.forEach(listener);
+        return flashcards;
+    }
+
+    /**
+     * Non-blocking variant of {@link #generateFlashcards}. Providers without a
+     * non-blocking client run the blocking call on the bounded-elastic scheduler.
+     */
+    default Mono<List<FlashcardProposalDTO>> generateFlashcardsReactive(String text) {
+        return Mono.fromCallable(() -> generateFlashcards(text)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * {@link #generateFlashcards} together with the model that answered. Meta-providers
+     * that pick a provider per call override this.
+     */
+    default Result generate(String text) {
+        return new Result(generateFlashcards(text), getModel());
+    }
+
+    /**
+     * {@link #streamFlashcards} together with the model that answered.
+     */
+    default Result stream(String text, Consumer<FlashcardProposalDTO> listener) {
+        return new Result(streamFlashcards(text, listener), getModel());
+    }
+
+    /**
+     * {@link #generateFlashcardsReactive} together with the model that answered.
+     */
+    default Mono<Result> generateReactive(String text) {
+        return generateFlashcardsReactive(text).map(proposals -> new Result(proposals, getModel()));
+    }
+
+    /**
+     * Maximum number of calls allowed to run against this provider at the same time.
+     */
+    default int getMaxConcurrency() {
+        return 10;
+    }
+
+    record Result(List<FlashcardProposalDTO> proposals, String model) {}
+}
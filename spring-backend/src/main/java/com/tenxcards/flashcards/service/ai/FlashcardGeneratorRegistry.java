@@ -0,0 +1,155 @@
+package com.tenxcards.flashcards.service.ai;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Looks up {@link FlashcardGenerator} providers by name. Every provider bean in
+ * the context is registered; the one named by the 'aiprovider' property is used
+ * for generation. Returned generators are guarded by a per-provider circuit
+ * breaker and adaptive concurrency limit, and record latency and error metrics.
+ * The routing meta-provider is not wrapped: it calls the guarded providers itself.
+ */
+@Component
+public class FlashcardGeneratorRegistry {
+
+    @Autowired
+    private List<FlashcardGenerator> providers;
+
+    @Autowired
+    private LlmMetrics llmMetrics;
+
+    @Value("${aiprovider:openai}")
+    private String activeProvider;
+
+    @Value("${ai.circuit-breaker.window-size:20}")
+    private int breakerWindowSize;
+
+    @Value("${ai.circuit-breaker.min-calls:10}")
+    private int breakerMinCalls;
+
+    @Value("${ai.circuit-breaker.failure-rate-threshold:0.5}")
+    private double breakerFailureRateThreshold;
+
+    @Value("${ai.circuit-breaker.open-duration-seconds:30}")
+    private long breakerOpenDurationSeconds;
+
+    @Value("${ai.circuit-breaker.half-open-trials:1}")
+    private int breakerHalfOpenTrials;
+
+    @Value("${ai.limiter.min-limit:1}")
+    private int limiterMinLimit;
+
+    @Value("${ai.limiter.latency-threshold-ms:20000}")
+    private long limiterLatencyThresholdMs;
+
+    @Value("${ai.limiter.backoff-ratio:0.9}")
+    private double limiterBackoffRatio;
+
+    @Value("${ai.limiter.retry-after-seconds:1}")
+    private long limiterRetryAfterSeconds;
+
+    private final Map<String, ManagedFlashcardGenerator> generators = new LinkedHashMap<>();
+
+    private RoutingFlashcardGenerator router;
+
+    @PostConstruct
+    void registerProviders() {
+        for (FlashcardGenerator provider : providers) {
+            if (provider instanceof RoutingFlashcardGenerator routing) {
+                router = routing;
+                continue;
+            }
+            String name = provider.getName().toLowerCase();
+            CircuitBreaker circuitBreaker = new CircuitBreaker(name, breakerWindowSize, breakerMinCalls,
+                    breakerFailureRateThreshold, Duration.ofSeconds(breakerOpenDurationSeconds), breakerHalfOpenTrials);
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(limiterMinLimit,
+                    provider.getMaxConcurrency(), limiterLatencyThresholdMs, limiterBackoffRatio);
+            generators.put(name, new ManagedFlashcardGenerator(provider, circuitBreaker, limiter, limiterRetryAfterSeconds, llmMetrics));
+        }
+        activeProvider = activeProvider.toLowerCase();
+        if (!generators.containsKey(activeProvider) && !isRouting(activeProvider)) {
+            throw new IllegalStateException("Unknown aiprovider '" + activeProvider + "'. Available: " + generators.keySet()
+                    + (router != null ? " or " + router.getName() : ""));
+        }
+    }
+
+    /**
+     * The provider selected by the 'aiprovider' property.
+     */
+    public FlashcardGenerator getActive() {
+        return isRouting(activeProvider) ? router : generators.get(activeProvider);
+    }
+
+    public FlashcardGenerator get(String name) {
+        return managed(name);
+    }
+
+    public ProviderMetrics getMetrics(String name) {
+        return managed(name).getMetrics();
+    }
+
+    /**
+     * Whether the named provider's circuit breaker currently lets calls through.
+     */
+    public boolean isAvailable(String name) {
+        return managed(name).isAvailable();
+    }
+
+    /**
+     * Fails fast when the active provider's circuit breaker is open, so callers
+     * can refuse work before doing anything else.
+     *
+     * @throws ProviderUnavailableException if the circuit breaker is open
+     */
+    public void ensureActiveAvailable() {
+        if (isRouting(activeProvider)) {
+            router.ensureAvailable();
+        } else {
+            generators.get(activeProvider).ensureAvailable();
+        }
+    }
+
+    /**
+     * Calls the active provider would admit right now.
+     */
+    public int getActiveCapacity() {
+        return isRouting(activeProvider) ? router.getAvailableCapacity() : generators.get(activeProvider).getAvailableCapacity();
+    }
+
+    public Collection<? extends FlashcardGenerator> getAll() {
+        return generators.values();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        generators.forEach((name, generator) -> {
+            Map<String, Object> providerStats = new LinkedHashMap<>(generator.getMetrics().getStats());
+            providerStats.put("model", generator.getModel());
+            providerStats.put("circuit_breaker", generator.getCircuitBreaker().getStats());
+            providerStats.put("concurrency_limit", generator.getLimiter().getStats());
+            stats.put(name, providerStats);
+        });
+        return stats;
+    }
+
+    private boolean isRouting(String name) {
+        return router != null && router.getName().equals(name);
+    }
+
+    ManagedFlashcardGenerator managed(String name) {
+        ManagedFlashcardGenerator generator = generators.get(name.toLowerCase());
+        if (generator == null) {
+            throw new IllegalArgumentException("Unknown AI provider: " + name);
+        }
+        return generator;
+    }
+}
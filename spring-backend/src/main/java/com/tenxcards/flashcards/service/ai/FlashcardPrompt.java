@@ -0,0 +1,41 @@
+package com.tenxcards.flashcards.service.ai;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+
+import java.util.List;
+
+/**
+ * Prompt and response format shared by all {@link FlashcardGenerator} providers.
+ */
+public final class FlashcardPrompt {
+
+    /**
+     * Identifies the prompt below; part of the generation result cache key.
+     * Bump it whenever SYSTEM_PROMPT or buildUserPrompt change.
+     */
+    public static final String VERSION = "1";
+
+    public static final String SYSTEM_PROMPT = "You are a helpful assistant that generates flashcards from text. Create 5-10 high-quality flashcards with a question on the front and an answer on the back. Each flashcard should cover a key concept from the text. Format your response as a JSON array with objects containing \"front\" and \"back\" properties. JSON only, no extra text, tags or delimiters.";
+
+    private FlashcardPrompt() {}
+
+    public static String buildUserPrompt(String text) {
+        return String.format(
+            "Create flashcards from the following text. Generate 5-10 flashcards that cover the key concepts, definitions, and important information.\n\n" +
+            "Format each flashcard as:\n" +
+            "FRONT: [question or prompt]\n" +
+            "BACK: [answer or explanation]\n" +
+            "---\n\n" +
+            "Make the questions clear and concise. Make the answers informative but not too long.\n\n" +
+            "Text to process:\n%s", text
+        );
+    }
+
+    /**
+     * Parses the model's answer: a JSON array of {front, back} objects, or the
+     * FRONT:/BACK: text format separated by '---' as a fallback.
+     */
+    public static List<FlashcardProposalDTO> parseFlashcards(String responseText) {
+        return FlashcardProposalParser.parse(responseText);
+    }
+}
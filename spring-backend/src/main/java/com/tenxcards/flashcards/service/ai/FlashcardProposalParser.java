@@ -0,0 +1,164 @@
+package com.tenxcards.flashcards.service.ai;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the model's answer into flashcard proposals without per-call setup.
+ * The JSON array is read with a streaming parser and a shared reader, starting
+ * at the first '[' that opens an array of objects, so code fences and leading
+ * prose are skipped. Answers without such an array are read as the FRONT:/BACK:
+ * format in a single pass over the text.
+ */
+public final class FlashcardProposalParser {
+
+    private static final ObjectReader PROPOSAL_READER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .readerFor(FlashcardProposalDTO.class);
+
+    private static final String SEPARATOR = "---";
+    private static final String FRONT = "FRONT:";
+    private static final String BACK = "BACK:";
+
+    private FlashcardProposalParser() {}
+
+    public static List<FlashcardProposalDTO> parse(String responseText) {
+        if (responseText == null || responseText.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<FlashcardProposalDTO> flashcards = parseJson(responseText);
+        return flashcards != null ? flashcards : parseFrontBack(responseText);
+    }
+
+    /**
+     * Reads a single proposal object with the shared reader.
+     */
+    public static FlashcardProposalDTO readProposal(String json) throws IOException {
+        return PROPOSAL_READER.readValue(json);
+    }
+
+    /**
+     * Reads the first JSON array of objects in the text. Returns null when there is
+     * none or it yields no cards, so the caller falls back to the text format; a
+     * truncated array keeps the cards read before the cut.
+     */
+    static List<FlashcardProposalDTO> parseJson(String text) {
+        int start = findArrayStart(text, 0);
+        while (start >= 0) {
+            List<FlashcardProposalDTO> flashcards = readArray(text, start);
+            if (flashcards != null) {
+                return flashcards;
+            }
+            start = findArrayStart(text, start + 1);
+        }
+        return null;
+    }
+
+    private static List<FlashcardProposalDTO> readArray(String text, int start) {
+        List<FlashcardProposalDTO> flashcards = new ArrayList<>();
+        StringReader reader = new StringReader(text);
+        try {
+            reader.skip(start);
+            try (JsonParser parser = PROPOSAL_READER.getFactory().createParser(reader)) {
+                parser.nextToken(); // START_ARRAY
+                JsonToken token;
+                while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                    FlashcardProposalDTO proposal = PROPOSAL_READER.readValue(parser);
+                    if (proposal.getFront() != null && proposal.getBack() != null) {
+                        flashcards.add(proposal);
+                    }
+                }
+                if (token != JsonToken.END_ARRAY) {
+                    return flashcards.isEmpty() ? null : flashcards;
+                }
+            }
+        } catch (IOException e) {
+            return flashcards.isEmpty() ? null : flashcards;
+        }
+        return flashcards;
+    }
+
+    /**
+     * Index of the next '[' whose first non-blank successor is '{' or ']'.
+     */
+    private static int findArrayStart(String text, int from) {
+        int length = text.length();
+        for (int i = text.indexOf('[', from); i >= 0; i = text.indexOf('[', i + 1)) {
+            int j = i + 1;
+            while (j < length && Character.isWhitespace(text.charAt(j))) {
+                j++;
+            }
+            if (j < length && (text.charAt(j) == '{' || text.charAt(j) == ']')) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Cards separated by '---', each with a FRONT: and a BACK: label. The front runs
+     * until BACK: (or the end of the card) and the back until the next FRONT:.
+     */
+    static List<FlashcardProposalDTO> parseFrontBack(String text) {
+        List<FlashcardProposalDTO> flashcards = new ArrayList<>();
+        int length = text.length();
+        int cardStart = 0;
+        while (cardStart <= length) {
+            int separator = text.indexOf(SEPARATOR, cardStart);
+            int cardEnd = separator < 0 ? length : separator;
+
+            int front = indexOf(text, FRONT, cardStart, cardEnd);
+            int back = indexOf(text, BACK, cardStart, cardEnd);
+            if (front >= 0 && back >= 0) {
+                int frontStart = front + FRONT.length();
+                int frontEnd = indexOf(text, BACK, frontStart, cardEnd);
+                int backStart = back + BACK.length();
+                int nextFront = indexOf(text, FRONT, backStart, cardEnd);
+
+                String frontText = trimmed(text, frontStart, frontEnd < 0 ? cardEnd : frontEnd);
+                String backText = trimmed(text, backStart, nextFront < 0 ? cardEnd : nextFront);
+                if (frontText != null && backText != null) {
+                    flashcards.add(new FlashcardProposalDTO(frontText, backText));
+                }
+            }
+
+            if (separator < 0) {
+                break;
+            }
+            cardStart = separator + SEPARATOR.length();
+        }
+        return flashcards;
+    }
+
+    /**
+     * indexOf bounded to [from, to), so a missing label never scans past the card.
+     */
+    private static int indexOf(String text, String label, int from, int to) {
+        char first = label.charAt(0);
+        for (int i = from, last = to - label.length(); i <= last; i++) {
+            if (text.charAt(i) == first && text.startsWith(label, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String trimmed(String text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return start < end ? text.substring(start, end) : null;
+    }
+}
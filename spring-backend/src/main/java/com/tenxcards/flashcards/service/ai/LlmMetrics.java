@@ -0,0 +1,68 @@
+package com.tenxcards.flashcards.service.ai;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for calls to the AI providers, tagged by provider and model:
+ * 'llm.requests' (latency timer, outcome success/error/cancelled),
+ * 'llm.tokens' (prompt and completion tokens as reported by the provider) and
+ * 'llm.rejections' (calls refused by the circuit breaker or concurrency limit).
+ */
+@Component
+public class LlmMetrics {
+
+    public static final String REQUESTS = "llm.requests";
+    public static final String TOKENS = "llm.tokens";
+    public static final String REJECTIONS = "llm.rejections";
+
+    private final MeterRegistry registry;
+
+    public LlmMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void recordCall(String provider, String model, long nanos, String outcome) {
+        Timer.builder(REQUESTS)
+                .description("Calls to the AI provider")
+                .tag("provider", provider)
+                .tag("model", String.valueOf(model))
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Token usage of one completion. Negative counts (not reported) are skipped.
+     */
+    public void recordTokens(String provider, String model, long promptTokens, long completionTokens) {
+        if (promptTokens > 0) {
+            tokens(provider, model, "prompt").increment(promptTokens);
+        }
+        if (completionTokens > 0) {
+            tokens(provider, model, "completion").increment(completionTokens);
+        }
+    }
+
+    public void recordRejected(String provider, String reason) {
+        Counter.builder(REJECTIONS)
+                .description("Calls refused before reaching the AI provider")
+                .tag("provider", provider)
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    private Counter tokens(String provider, String model, String type) {
+        return Counter.builder(TOKENS)
+                .description("Tokens used by AI provider calls")
+                .tag("provider", provider)
+                .tag("model", String.valueOf(model))
+                .tag("type", type)
+                .register(registry);
+    }
+}
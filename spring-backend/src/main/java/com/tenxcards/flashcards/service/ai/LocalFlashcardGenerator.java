@@ -0,0 +1,83 @@
+package com.tenxcards.flashcards.service.ai;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stand-in provider that answers without calling any external API. Useful for
+ * development and load tests; 'local.latency-ms' simulates model latency.
+ */
+@Component
+public class LocalFlashcardGenerator implements FlashcardGenerator {
+
+    @Value("${local.latency-ms:0}")
+    private long latencyMs;
+
+    @Value("${local.max-concurrency:100}")
+    private int maxConcurrency;
+
+    @Override
+    public String getName() {
+        return "local";
+    }
+
+    @Override
+    public String getModel() {
+        return "local-stub";
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public List<FlashcardProposalDTO> generateFlashcards(String text) {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while generating flashcards", e);
+            }
+        }
+        return mockFlashcards();
+    }
+
+    /**
+     * Simulates the latency with a timer instead of a sleeping thread, like a
+     * non-blocking provider client.
+     */
+    @Override
+    public Mono<List<FlashcardProposalDTO>> generateFlashcardsReactive(String text) {
+        Mono<List<FlashcardProposalDTO>> flashcards = Mono.fromSupplier(this::mockFlashcards);
+        return latencyMs > 0 ? Mono.delay(Duration.ofMillis(latencyMs)).then(flashcards) : flashcards;
+    }
+
+    private List<FlashcardProposalDTO> mockFlashcards() {
+        List<FlashcardProposalDTO> mockFlashcards = new ArrayList<>();
+        
+        mockFlashcards.add(new FlashcardProposalDTO(
+            "What is the main topic of this text?",
+            "The main topic is extracted from the provided text content."
+        ));
+        
+        mockFlashcards.add(new FlashcardProposalDTO(
+            "What are the key concepts mentioned?",
+            "The key concepts are the important ideas and terms found in the text."
+        ));
+        
+        mockFlashcards.add(new FlashcardProposalDTO(
+            "What is the significance of this information?",
+            "This information is significant because it provides educational value and learning opportunities."
+        ));
+        
+        return mockFlashcards;
+    }
+}
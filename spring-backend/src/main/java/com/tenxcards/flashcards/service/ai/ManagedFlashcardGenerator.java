@@ -0,0 +1,194 @@
+package com.tenxcards.flashcards.service.ai;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Wraps a provider with its circuit breaker, adaptive concurrency limit and
+ * latency/error accounting (in-process and as Micrometer meters). All calls made through
+ * {@link FlashcardGeneratorRegistry} go through this class.
+ */
+class ManagedFlashcardGenerator implements FlashcardGenerator {
+
+    private static final BooleanSupplier NOT_CANCELLED = () -> false;
+
+    private final FlashcardGenerator delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long limitRetryAfterSeconds;
+    private final LlmMetrics llmMetrics;
+    private final ProviderMetrics metrics = new ProviderMetrics();
+
+    ManagedFlashcardGenerator(FlashcardGenerator delegate, CircuitBreaker circuitBreaker,
+                              AdaptiveConcurrencyLimiter limiter, long limitRetryAfterSeconds, LlmMetrics llmMetrics) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.limiter = limiter;
+        this.limitRetryAfterSeconds = limitRetryAfterSeconds;
+        this.llmMetrics = llmMetrics;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public String getModel() {
+        return delegate.getModel();
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return delegate.getMaxConcurrency();
+    }
+
+    @Override
+    public List<FlashcardProposalDTO> generateFlashcards(String text) {
+        return call(() -> delegate.generateFlashcards(text), NOT_CANCELLED);
+    }
+
+    /**
+     * Variant of {@link #generateFlashcards} for calls the caller may abandon, e.g. a
+     * hedged request that lost. A failure once 'cancelled' is set is recorded as a
+     * cancellation rather than against the provider. The interrupt flag cannot tell:
+     * HTTP clients clear it when they abort the call with an InterruptedIOException.
+     */
+    List<FlashcardProposalDTO> generateFlashcards(String text, BooleanSupplier cancelled) {
+        return call(() -> delegate.generateFlashcards(text), cancelled);
+    }
+
+    @Override
+    public List<FlashcardProposalDTO> streamFlashcards(String text, Consumer<FlashcardProposalDTO> listener) {
+        return call(() -> delegate.streamFlashcards(text, listener), NOT_CANCELLED);
+    }
+
+    public ProviderMetrics getMetrics() {
+        return metrics;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    /**
+     * Whether a call made now would get past the circuit breaker. Does not reserve anything.
+     */
+    public boolean isAvailable() {
+        return circuitBreaker.getState() != CircuitBreaker.State.OPEN || circuitBreaker.getRetryAfterMillis() == 0;
+    }
+
+    /**
+     * Calls the provider would admit right now; zero while the circuit breaker is open.
+     */
+    public int getAvailableCapacity() {
+        return isAvailable() ? limiter.getAvailable() : 0;
+    }
+
+    /**
+     * @throws ProviderUnavailableException if the circuit breaker is open
+     */
+    public void ensureAvailable() {
+        if (!isAvailable()) {
+            throw circuitOpen();
+        }
+    }
+
+    /**
+     * Same accounting as the blocking calls; the permits are held until the Mono
+     * completes, fails or is cancelled.
+     */
+    @Override
+    public Mono<List<FlashcardProposalDTO>> generateFlashcardsReactive(String text) {
+        return Mono.defer(() -> {
+            CircuitBreaker.Permit permit = acquire();
+            long start = System.nanoTime();
+            // Deferred so that a delegate failing before it returns a Mono still releases the permits
+            return Mono.defer(() -> delegate.generateFlashcardsReactive(text))
+                    .doOnSuccess(result -> onSuccess(permit, start))
+                    .doOnError(e -> onFailure(permit, start))
+                    .doOnCancel(() -> onCancelled(permit, start));
+        });
+    }
+
+    private List<FlashcardProposalDTO> call(Supplier<List<FlashcardProposalDTO>> call, BooleanSupplier cancelled) {
+        CircuitBreaker.Permit permit = acquire();
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            List<FlashcardProposalDTO> result = call.get();
+            succeeded = true;
+            return result;
+        } finally {
+            // Released on any throwable: a leaked half-open trial would keep the breaker from ever closing
+            if (succeeded) {
+                onSuccess(permit, start);
+            } else if (cancelled.getAsBoolean()) {
+                // Abandoned by the caller; not the provider's fault
+                onCancelled(permit, start);
+            } else {
+                onFailure(permit, start);
+            }
+        }
+    }
+
+    /**
+     * @throws ProviderUnavailableException if the circuit breaker is open or the concurrency limit is reached
+     */
+    private CircuitBreaker.Permit acquire() {
+        CircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+        if (permit == null) {
+            llmMetrics.recordRejected(getName(), "circuit_open");
+            throw circuitOpen();
+        }
+        if (!limiter.tryAcquire()) {
+            circuitBreaker.release(permit);
+            llmMetrics.recordRejected(getName(), "concurrency_limit");
+            throw new ProviderAtCapacityException(
+                    "Provider " + getName() + " is at its concurrency limit of " + limiter.getLimit(), limitRetryAfterSeconds);
+        }
+        return permit;
+    }
+
+    private void onSuccess(CircuitBreaker.Permit permit, long startNanos) {
+        long latencyNanos = System.nanoTime() - startNanos;
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+        llmMetrics.recordCall(getName(), getModel(), latencyNanos, "success");
+        metrics.recordSuccess(latencyMs);
+        limiter.onSuccess(latencyMs);
+        circuitBreaker.onSuccess(permit);
+    }
+
+    private void onFailure(CircuitBreaker.Permit permit, long startNanos) {
+        llmMetrics.recordCall(getName(), getModel(), System.nanoTime() - startNanos, "error");
+        metrics.recordFailure(elapsedMs(startNanos));
+        limiter.onFailure();
+        circuitBreaker.onFailure(permit);
+    }
+
+    private void onCancelled(CircuitBreaker.Permit permit, long startNanos) {
+        llmMetrics.recordCall(getName(), getModel(), System.nanoTime() - startNanos, "cancelled");
+        limiter.release();
+        circuitBreaker.release(permit);
+    }
+
+    private ProviderUnavailableException circuitOpen() {
+        long retryAfterSeconds = TimeUnit.MILLISECONDS.toSeconds(circuitBreaker.getRetryAfterMillis()) + 1;
+        return new ProviderUnavailableException(
+                "Provider " + getName() + " is temporarily unavailable", retryAfterSeconds);
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,12 @@
+package com.tenxcards.flashcards.service.ai;
+
+/**
+ * Refusal because the provider's concurrency limit is reached, as opposed to an
+ * open circuit breaker. The provider is healthy, so callers may wait and retry.
+ */
+public class ProviderAtCapacityException extends ProviderUnavailableException {
+
+    public ProviderAtCapacityException(String message, long retryAfterSeconds) {
+        super(message, retryAfterSeconds);
+    }
+}
@@ -0,0 +1,145 @@
+package com.tenxcards.flashcards.service.ai;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call counters and a fixed-bucket latency histogram for one provider, plus a
+ * rolling window of the most recent calls used for latency-aware routing.
+ */
+public class ProviderMetrics {
+
+    private static final int WINDOW_SIZE = 200;
+
+    /** Upper bounds of the latency buckets in milliseconds; the last bucket is unbounded. */
+    private static final long[] BUCKET_BOUNDS_MS = {100, 250, 500, 1000, 2000, 5000, 10000, 20000, 30000, 60000};
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MS.length + 1];
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalLatencyMs = new LongAdder();
+
+    private final long[] windowLatencies = new long[WINDOW_SIZE];
+    private final boolean[] windowFailures = new boolean[WINDOW_SIZE];
+    private int windowNext;
+    private int windowCount;
+
+    public ProviderMetrics() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void recordSuccess(long latencyMs) {
+        record(latencyMs, false);
+    }
+
+    public void recordFailure(long latencyMs) {
+        errors.increment();
+        record(latencyMs, true);
+    }
+
+    private void record(long latencyMs, boolean failure) {
+        calls.increment();
+        totalLatencyMs.add(latencyMs);
+        buckets[bucketIndex(latencyMs)].increment();
+        synchronized (windowLatencies) {
+            windowLatencies[windowNext] = latencyMs;
+            windowFailures[windowNext] = failure;
+            windowNext = (windowNext + 1) % WINDOW_SIZE;
+            windowCount = Math.min(windowCount + 1, WINDOW_SIZE);
+        }
+    }
+
+    /**
+     * Latency percentile (0-100) over the successful calls in the rolling window,
+     * or -1 if there are fewer than minSamples of them.
+     */
+    public long getRecentLatencyPercentile(double percentile, int minSamples) {
+        long[] latencies;
+        synchronized (windowLatencies) {
+            latencies = new long[windowCount];
+            int n = 0;
+            for (int i = 0; i < windowCount; i++) {
+                if (!windowFailures[i]) {
+                    latencies[n++] = windowLatencies[i];
+                }
+            }
+            latencies = Arrays.copyOf(latencies, n);
+        }
+        if (latencies.length == 0 || latencies.length < minSamples) {
+            return -1;
+        }
+        Arrays.sort(latencies);
+        int index = (int) Math.ceil(percentile / 100.0 * latencies.length) - 1;
+        return latencies[Math.max(0, Math.min(index, latencies.length - 1))];
+    }
+
+    /**
+     * Share of failed calls in the rolling window.
+     */
+    public double getRecentErrorRate() {
+        synchronized (windowLatencies) {
+            if (windowCount == 0) {
+                return 0.0;
+            }
+            int failures = 0;
+            for (int i = 0; i < windowCount; i++) {
+                if (windowFailures[i]) {
+                    failures++;
+                }
+            }
+            return (double) failures / windowCount;
+        }
+    }
+
+    public int getRecentCalls() {
+        synchronized (windowLatencies) {
+            return windowCount;
+        }
+    }
+
+    private static int bucketIndex(long latencyMs) {
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            if (latencyMs <= BUCKET_BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MS.length;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public double getErrorRate() {
+        long total = calls.sum();
+        return total == 0 ? 0.0 : (double) errors.sum() / total;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < buckets.length; i++) {
+            String label = i < BUCKET_BOUNDS_MS.length ? "le_" + BUCKET_BOUNDS_MS[i] + "ms" : "gt_" + BUCKET_BOUNDS_MS[i - 1] + "ms";
+            histogram.put(label, buckets[i].sum());
+        }
+        long total = calls.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("calls", total);
+        stats.put("errors", errors.sum());
+        stats.put("error_rate", getErrorRate());
+        stats.put("mean_latency_ms", total == 0 ? 0 : totalLatencyMs.sum() / total);
+        stats.put("recent_p50_ms", getRecentLatencyPercentile(50, 1));
+        stats.put("recent_p95_ms", getRecentLatencyPercentile(95, 1));
+        stats.put("recent_error_rate", getRecentErrorRate());
+        stats.put("latency_histogram", histogram);
+        return stats;
+    }
+}
@@ -0,0 +1,24 @@
+package com.tenxcards.flashcards.service.ai;
+
+/**
+ * Thrown when a provider call is refused before it is made, because the
+ * provider's circuit breaker is open or its concurrency limit is reached.
+ * Controllers answer 503 with a Retry-After header.
+ */
+public class ProviderUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ProviderUnavailableException(String message) {
+        this(message, 1);
+    }
+
+    public ProviderUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,342 @@
+package com.tenxcards.flashcards.service.ai;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Meta-provider ('aiprovider: routing') that sends each generation to the
+ * fastest healthy provider among 'ai.routing.providers', judged by the rolling
+ * latency window in {@link ProviderMetrics}.
+ *
+ * If the primary has not answered within its recent p95 latency (or failed
+ * before that), the same request is hedged to the next provider. Whichever succeeds first wins and
+ * the other call is cancelled. The hedge delay starts once the primary call is
+ * running; a primary still queued in the executor after one hedge delay is run
+ * on the calling thread instead, and a hedge the executor rejects is skipped.
+ * Streaming calls are routed but never hedged, since two streams cannot be
+ * merged into one listener.
+ */
+@Component
+public class RoutingFlashcardGenerator implements FlashcardGenerator {
+
+    @Autowired
+    private ObjectProvider<FlashcardGeneratorRegistry> registryProvider;
+
+    @Autowired
+    @Qualifier("hedgeExecutor")
+    private TaskExecutor hedgeExecutor;
+
+    @Value("${ai.routing.providers:openai,openrouter}")
+    private List<String> providerNames;
+
+    @Value("${ai.routing.hedging-enabled:true}")
+    private boolean hedgingEnabled;
+
+    @Value("${ai.routing.min-samples:20}")
+    private int minSamples;
+
+    @Value("${ai.routing.default-hedge-delay-ms:10000}")
+    private long defaultHedgeDelayMs;
+
+    @Value("${ai.routing.min-hedge-delay-ms:500}")
+    private long minHedgeDelayMs;
+
+    @Value("${ai.routing.max-error-rate:0.5}")
+    private double maxErrorRate;
+
+    private final Map<String, AtomicLong> primaryDecisions = new ConcurrentHashMap<>();
+    private final AtomicLong hedgesFired = new AtomicLong();
+    private final AtomicLong hedgesRejected = new AtomicLong();
+    private final AtomicLong primaryQueueTimeouts = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong primaryWinsAfterHedge = new AtomicLong();
+
+    @Override
+    public String getName() {
+        return "routing";
+    }
+
+    /**
+     * Model of the provider a call made now would go to first. The model that
+     * actually answered a call is returned in its {@link Result}.
+     */
+    @Override
+    public String getModel() {
+        return registry().get(rankProviders().get(0)).getModel();
+    }
+
+    @Override
+    public List<String> getModels() {
+        return providerNames.stream()
+                .map(name -> registry().get(name).getModel())
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Calls the routed providers admit at once, summed.
+     */
+    @Override
+    public int getMaxConcurrency() {
+        FlashcardGeneratorRegistry registry = registry();
+        return providerNames.stream().mapToInt(name -> registry.get(name).getMaxConcurrency()).sum();
+    }
+
+    /**
+     * @throws ProviderUnavailableException if the circuit breaker of every routed provider is open
+     */
+    public void ensureAvailable() {
+        FlashcardGeneratorRegistry registry = registry();
+        if (providerNames.stream().noneMatch(registry::isAvailable)) {
+            throw new ProviderUnavailableException("All routed providers are temporarily unavailable");
+        }
+    }
+
+    /**
+     * Calls the routed providers would admit right now, summed.
+     */
+    public int getAvailableCapacity() {
+        FlashcardGeneratorRegistry registry = registry();
+        return providerNames.stream().mapToInt(name -> registry.managed(name).getAvailableCapacity()).sum();
+    }
+
+    @Override
+    public List<FlashcardProposalDTO> generateFlashcards(String text) {
+        return generate(text).proposals();
+    }
+
+    @Override
+    public List<FlashcardProposalDTO> streamFlashcards(String text, Consumer<FlashcardProposalDTO> listener) {
+        return stream(text, listener).proposals();
+    }
+
+    @Override
+    public Result generate(String text) {
+        List<String> ranked = rankProviders();
+        String primary = ranked.get(0);
+        record(primary);
+
+        if (!hedgingEnabled || ranked.size() < 2) {
+            return registry().get(primary).generate(text);
+        }
+        return generateHedged(text, primary, ranked.get(1));
+    }
+
+    @Override
+    public Result stream(String text, Consumer<FlashcardProposalDTO> listener) {
+        String primary = rankProviders().get(0);
+        record(primary);
+        return registry().get(primary).stream(text, listener);
+    }
+
+    /**
+     * Routed and hedged like {@link #generate}, on the bounded-elastic scheduler.
+     */
+    @Override
+    public Mono<Result> generateReactive(String text) {
+        return Mono.fromCallable(() -> generate(text)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<List<FlashcardProposalDTO>> generateFlashcardsReactive(String text) {
+        return generateReactive(text).map(Result::proposals);
+    }
+
+    private Result generateHedged(String text, String primary, String secondary) {
+        ExecutorCompletionService<Result> completion = new ExecutorCompletionService<>(hedgeExecutor);
+        HedgedCall primaryCall;
+        try {
+            primaryCall = submit(completion, primary, text);
+        } catch (RejectedExecutionException e) {
+            // Hedge pool saturated: call the primary on this thread, unhedged
+            hedgesRejected.incrementAndGet();
+            return registry().get(primary).generate(text);
+        }
+        HedgedCall secondaryCall = null;
+
+        try {
+            int pending = 1;
+            ExecutionException firstFailure = null;
+
+            // The hedge delay measures the provider, not the time spent in the executor's queue.
+            // A primary still queued after one hedge delay is taken back and called here, unhedged
+            long hedgeDelayMs = hedgeDelayMs(primary);
+            if (!primaryCall.started().await(hedgeDelayMs, TimeUnit.MILLISECONDS) && primaryCall.takeOver()) {
+                primaryQueueTimeouts.incrementAndGet();
+                return registry().get(primary).generate(text);
+            }
+            Future<Result> done = completion.poll(hedgeDelayMs, TimeUnit.MILLISECONDS);
+            if (done != null) {
+                try {
+                    return done.get();
+                } catch (ExecutionException e) {
+                    // Primary failed fast; fall through and let the secondary answer
+                    firstFailure = e;
+                    pending = 0;
+                }
+            }
+
+            try {
+                secondaryCall = submit(completion, secondary, text);
+                hedgesFired.incrementAndGet();
+                pending++;
+            } catch (RejectedExecutionException e) {
+                // No room for the hedge; keep waiting for the primary
+                hedgesRejected.incrementAndGet();
+            }
+
+            for (; pending > 0; pending--) {
+                done = completion.take();
+                try {
+                    Result result = done.get();
+                    if (secondaryCall != null && done == secondaryCall.future()) {
+                        hedgeWins.incrementAndGet();
+                    } else {
+                        primaryWinsAfterHedge.incrementAndGet();
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    if (firstFailure == null) {
+                        firstFailure = e;
+                    }
+                }
+            }
+            throw unwrap(firstFailure);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProviderUnavailableException("Interrupted while waiting for flashcard generation");
+        } finally {
+            // Cancel whichever call is still running; no-op for the finished one
+            primaryCall.cancel();
+            if (secondaryCall != null) {
+                secondaryCall.cancel();
+            }
+        }
+    }
+
+    private HedgedCall submit(ExecutorCompletionService<Result> completion, String provider, String text) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicBoolean claimed = new AtomicBoolean();
+        CountDownLatch started = new CountDownLatch(1);
+        ManagedFlashcardGenerator generator = registry().managed(provider);
+        Future<Result> future = completion.submit(() -> {
+            if (!claimed.compareAndSet(false, true)) {
+                throw new CancellationException("Taken over by the calling thread");
+            }
+            started.countDown();
+            return new Result(generator.generateFlashcards(text, cancelled::get), generator.getModel());
+        });
+        return new HedgedCall(future, cancelled, started, claimed);
+    }
+
+    /**
+     * Healthy providers (circuit not open, acceptable recent error rate) first,
+     * fastest recent median first. Providers without
+     * enough samples rank as fastest so that they get explored.
+     */
+    private List<String> rankProviders() {
+        FlashcardGeneratorRegistry registry = registry();
+        List<String> healthy = new ArrayList<>();
+        List<String> unhealthy = new ArrayList<>();
+        for (String name : providerNames) {
+            ProviderMetrics metrics = registry.getMetrics(name);
+            boolean isHealthy = registry.isAvailable(name)
+                    && (metrics.getRecentCalls() < minSamples || metrics.getRecentErrorRate() <= maxErrorRate);
+            (isHealthy ? healthy : unhealthy).add(name);
+        }
+        Comparator<String> byLatency = Comparator.comparingLong(
+                name -> registry.getMetrics(name).getRecentLatencyPercentile(50, minSamples));
+        healthy.sort(byLatency);
+        unhealthy.sort(byLatency);
+        healthy.addAll(unhealthy);
+        return healthy;
+    }
+
+    private long hedgeDelayMs(String provider) {
+        long p95 = registry().getMetrics(provider).getRecentLatencyPercentile(95, minSamples);
+        return p95 < 0 ? defaultHedgeDelayMs : Math.max(p95, minHedgeDelayMs);
+    }
+
+    private void record(String primary) {
+        primaryDecisions.computeIfAbsent(primary, name -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        return new RuntimeException(e.getCause());
+    }
+
+    /**
+     * A call submitted to the hedge executor. The flag is set before the call is
+     * cancelled, so the provider's accounting sees a cancellation, not a failure.
+     * Whichever of the executor and the caller claims the call first runs it.
+     */
+    private record HedgedCall(Future<Result> future, AtomicBoolean cancelled, CountDownLatch started, AtomicBoolean claimed) {
+
+        /**
+         * Claims a call that has not started yet, so it never runs on the executor.
+         */
+        boolean takeOver() {
+            if (!claimed.compareAndSet(false, true)) {
+                return false;
+            }
+            future.cancel(false);
+            return true;
+        }
+
+        void cancel() {
+            if (!future.isDone()) {
+                cancelled.set(true);
+                future.cancel(true);
+            }
+        }
+    }
+
+    private FlashcardGeneratorRegistry registry() {
+        return registryProvider.getObject();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Long> decisions = new LinkedHashMap<>();
+        primaryDecisions.forEach((name, count) -> decisions.put(name, count.get()));
+        long hedges = hedgesFired.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("providers", providerNames);
+        stats.put("primary_decisions", decisions);
+        stats.put("hedges_fired", hedges);
+        stats.put("hedges_rejected", hedgesRejected.get());
+        stats.put("primary_queue_timeouts", primaryQueueTimeouts.get());
+        stats.put("hedge_wins", hedgeWins.get());
+        stats.put("primary_wins_after_hedge", primaryWinsAfterHedge.get());
+        stats.put("hedge_win_rate", hedges == 0 ? 0.0 : (double) hedgeWins.get() / hedges);
+        return stats;
+    }
+}
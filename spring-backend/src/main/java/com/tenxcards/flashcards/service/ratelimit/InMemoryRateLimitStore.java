@@ -0,0 +1,72 @@
+package com.tenxcards.flashcards.service.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Token buckets of this instance, in a bounded Caffeine map (a striped concurrent
+ * hash map underneath) keyed by user and category. A bucket is dropped after
+ * idle-minutes without requests, but never before it has refilled, so eviction
+ * cannot hand a throttled user a fresh bucket early.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final Cache<BucketKey, Bucket> buckets;
+    private final long idleNanos;
+
+    public InMemoryRateLimitStore(
+            @Value("${rate-limit.idle-minutes:30}") long idleMinutes,
+            @Value("${rate-limit.max-buckets:200000}") long maxBuckets) {
+        this.idleNanos = Duration.ofMinutes(idleMinutes).toNanos();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfter(new Expiry<BucketKey, Bucket>() {
+                    @Override
+                    public long expireAfterCreate(BucketKey key, Bucket bucket, long currentTime) {
+                        return bucket.keepNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(BucketKey key, Bucket bucket, long currentTime, long currentDuration) {
+                        return bucket.keepNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(BucketKey key, Bucket bucket, long currentTime, long currentDuration) {
+                        return bucket.keepNanos();
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public long tryAcquire(UUID userId, RateLimitCategory category, TokenBucket.Limit limit) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.get(new BucketKey(userId, category),
+                key -> new Bucket(new TokenBucket(now), Math.max(idleNanos, limit.burstNanos())));
+        return bucket.tokens().tryAcquire(limit, now);
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("store", "memory");
+        result.put("buckets", buckets.estimatedSize());
+        return result;
+    }
+
+    private record BucketKey(UUID userId, RateLimitCategory category) {}
+
+    private record Bucket(TokenBucket tokens, long keepNanos) {}
+}
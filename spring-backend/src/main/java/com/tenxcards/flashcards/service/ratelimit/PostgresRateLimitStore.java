@@ -0,0 +1,95 @@
+package com.tenxcards.flashcards.service.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets in the rate_limit_buckets table, so a limit holds across all
+ * backend instances. Each request is one upsert that applies the same
+ * arithmetic as {@link TokenBucket} on the row, using the database clock;
+ * only a rejected request reads the row again for its Retry-After. If the
+ * database cannot be reached the request is let through rather than failed.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.store", havingValue = "postgres")
+public class PostgresRateLimitStore implements RateLimitStore {
+
+    private static final String NOW_MICROS = "(extract(epoch from clock_timestamp()) * 1000000)::bigint";
+
+    // Parameters: user id, category, interval, interval, burst - interval (all in microseconds)
+    private static final String ACQUIRE_SQL = "insert into rate_limit_buckets as b (user_id, category, full_at) " +
+            "values (?, ?, " + NOW_MICROS + " + ?) " +
+            "on conflict (user_id, category) do update set full_at = greatest(b.full_at + ?, excluded.full_at) " +
+            "where greatest(b.full_at + ?, excluded.full_at) <= excluded.full_at + ? " +
+            "returning full_at";
+
+    private static final String DEBT_SQL = "select full_at - " + NOW_MICROS +
+            " from rate_limit_buckets where user_id = ? and category = ?";
+
+    private static final String CLEANUP_SQL = "delete from rate_limit_buckets where full_at < " + NOW_MICROS + " - ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long idleMicros;
+
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    public PostgresRateLimitStore(JdbcTemplate jdbcTemplate,
+                                  @Value("${rate-limit.idle-minutes:30}") long idleMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idleMicros = TimeUnit.MINUTES.toMicros(idleMinutes);
+    }
+
+    @Override
+    public long tryAcquire(UUID userId, RateLimitCategory category, TokenBucket.Limit limit) {
+        long interval = TimeUnit.NANOSECONDS.toMicros(limit.intervalNanos());
+        long burst = TimeUnit.NANOSECONDS.toMicros(limit.burstNanos());
+        try {
+            List<Long> granted = jdbcTemplate.queryForList(ACQUIRE_SQL, Long.class,
+                    userId, category.key(), interval, interval, interval, burst - interval);
+            if (!granted.isEmpty()) {
+                return 0;
+            }
+            List<Long> debt = jdbcTemplate.queryForList(DEBT_SQL, Long.class, userId, category.key());
+            long waitMicros = debt.isEmpty() ? interval : debt.get(0) + interval - burst;
+            return TimeUnit.MICROSECONDS.toNanos(Math.max(1, waitMicros));
+        } catch (DataAccessException e) {
+            failures.incrementAndGet();
+            System.err.println("Rate limit check failed, letting the request through: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Deletes buckets that have been full for idle-minutes. A full bucket is the
+     * same as no row, so this never changes a limit.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.postgres.cleanup-interval-ms:300000}")
+    public void evictIdle() {
+        try {
+            evicted.addAndGet(jdbcTemplate.update(CLEANUP_SQL, idleMicros));
+        } catch (DataAccessException e) {
+            System.err.println("Rate limit cleanup failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("store", "postgres");
+        result.put("store_failures", failures.get());
+        result.put("evicted", evicted.get());
+        return result;
+    }
+}
@@ -0,0 +1,14 @@
+package com.tenxcards.flashcards.service.ratelimit;
+
+/**
+ * Requests limited by separate buckets: starting a generation calls the LLM
+ * provider and is limited much more tightly than reading or editing flashcards.
+ */
+public enum RateLimitCategory {
+    GENERATION,
+    CRUD;
+
+    public String key() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,77 @@
+package com.tenxcards.flashcards.service.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user rate limits, one token bucket per user and {@link RateLimitCategory}.
+ * Requests over the limit are answered 429 with a Retry-After header by
+ * RateLimitFilter.
+ */
+@Service
+public class RateLimitService {
+
+    private final RateLimitStore store;
+    private final boolean enabled;
+    private final Map<RateLimitCategory, TokenBucket.Limit> limits = new EnumMap<>(RateLimitCategory.class);
+    private final Map<RateLimitCategory, AtomicLong> allowed = new EnumMap<>(RateLimitCategory.class);
+    private final Map<RateLimitCategory, AtomicLong> rejected = new EnumMap<>(RateLimitCategory.class);
+
+    public RateLimitService(
+            RateLimitStore store,
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.generation.capacity:10}") int generationCapacity,
+            @Value("${rate-limit.generation.refill-per-minute:10}") double generationRefillPerMinute,
+            @Value("${rate-limit.crud.capacity:120}") int crudCapacity,
+            @Value("${rate-limit.crud.refill-per-minute:600}") double crudRefillPerMinute) {
+        this.store = store;
+        this.enabled = enabled;
+        limits.put(RateLimitCategory.GENERATION, new TokenBucket.Limit(generationCapacity, generationRefillPerMinute));
+        limits.put(RateLimitCategory.CRUD, new TokenBucket.Limit(crudCapacity, crudRefillPerMinute));
+        for (RateLimitCategory category : RateLimitCategory.values()) {
+            allowed.put(category, new AtomicLong());
+            rejected.put(category, new AtomicLong());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Decision tryAcquire(UUID userId, RateLimitCategory category) {
+        if (!enabled) {
+            return Decision.ALLOWED;
+        }
+        long waitNanos = store.tryAcquire(userId, category, limits.get(category));
+        if (waitNanos <= 0) {
+            allowed.get(category).incrementAndGet();
+            return Decision.ALLOWED;
+        }
+        rejected.get(category).incrementAndGet();
+        // Rounded up, so a client retrying after Retry-After finds a token
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        return new Decision(false, retryAfterSeconds);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        for (RateLimitCategory category : RateLimitCategory.values()) {
+            result.put(category.key() + "_allowed", allowed.get(category).get());
+            result.put(category.key() + "_rejected", rejected.get(category).get());
+        }
+        result.putAll(store.getStats());
+        return result;
+    }
+
+    public record Decision(boolean allowed, long retryAfterSeconds) {
+        static final Decision ALLOWED = new Decision(true, 0);
+    }
+}
@@ -0,0 +1,19 @@
+package com.tenxcards.flashcards.service.ratelimit;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Where the token buckets live: in this process (rate-limit.store=memory) or in
+ * Postgres, shared by all backend instances (rate-limit.store=postgres).
+ */
+public interface RateLimitStore {
+
+    /**
+     * Takes one token from the user's bucket for 'category'. Returns 0 when the
+     * request may proceed, otherwise the nanoseconds until a token is available.
+     */
+    long tryAcquire(UUID userId, RateLimitCategory category, TokenBucket.Limit limit);
+
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,67 @@
+package com.tenxcards.flashcards.service.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. The state is a single timestamp, the time at which the
+ * bucket is full again; the tokens available at 'now' are
+ * capacity - (fullAt - now) / interval. Taking a token moves fullAt one interval
+ * later with a compare-and-set, so concurrent requests never block each other.
+ */
+public final class TokenBucket {
+
+    private final AtomicLong fullAt;
+
+    public TokenBucket(long nowNanos) {
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one token. Returns 0 when it was available, otherwise the nanoseconds
+     * until it will be; nothing is taken in that case.
+     */
+    public long tryAcquire(Limit limit, long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + limit.intervalNanos();
+            long wait = next - nowNanos - limit.burstNanos();
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Whole tokens available at 'now'.
+     */
+    public long available(Limit limit, long nowNanos) {
+        long debt = Math.max(0, fullAt.get() - nowNanos);
+        return limit.capacity() - (debt + limit.intervalNanos() - 1) / limit.intervalNanos();
+    }
+
+    /**
+     * At most 'capacity' requests in a burst, refilled at 'refillPerMinute'.
+     */
+    public record Limit(int capacity, double refillPerMinute) {
+
+        public Limit {
+            if (capacity < 1 || refillPerMinute <= 0) {
+                throw new IllegalArgumentException("Rate limit needs capacity >= 1 and refill-per-minute > 0");
+            }
+        }
+
+        public long intervalNanos() {
+            return Math.max(1, (long) (60_000_000_000L / refillPerMinute));
+        }
+
+        /**
+         * Time for an empty bucket to fill up.
+         */
+        public long burstNanos() {
+            return capacity * intervalNanos();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.tenxcards.flashcards.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsConfigTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void testStatsGaugesSurviveGarbageCollection() throws InterruptedException {
+        // Bound like the beans' stats, through a new supplier object that nothing else references
+        Map<String, Object> stats = Map.of("hits", 42L, "enabled", true);
+        MetricsConfig.bindStats(registry, "component", () -> stats);
+
+        WeakReference<Object> canary = new WeakReference<>(new Object());
+        for (int i = 0; i < 10 && canary.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(canary.get(), "garbage collection did not run");
+
+        assertEquals(42.0, registry.get("flashcards.component.hits").gauge().value());
+        assertEquals(1.0, registry.get("flashcards.component.enabled").gauge().value());
+    }
+
+    @Test
+    void testGaugesOfOneComponentShareOneReadOfTheStats() {
+        AtomicInteger reads = new AtomicInteger();
+        MetricsConfig.bindStats(registry, "component", () -> {
+            reads.incrementAndGet();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("hits", 1L);
+            stats.put("misses", 2L);
+            stats.put("hit_rate", 0.5);
+            stats.put("name", "ignored");
+            return stats;
+        });
+
+        assertEquals(1.0, registry.get("flashcards.component.hits").gauge().value());
+        assertEquals(2.0, registry.get("flashcards.component.misses").gauge().value());
+        assertEquals(0.5, registry.get("flashcards.component.hit_rate").gauge().value());
+        assertNull(registry.find("flashcards.component.name").gauge());
+        assertEquals(1, reads.get());
+    }
+}
@@ -0,0 +1,41 @@
+package com.tenxcards.flashcards.config;
+
+import com.tenxcards.flashcards.service.SupabaseAuthClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.SimpleStatusAggregator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.actuate.health.StatusAggregator;
+
+import java.time.Instant;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SupabaseAuthHealthIndicatorTest {
+
+    private final SupabaseAuthClient authClient = mock(SupabaseAuthClient.class);
+    private final SupabaseAuthHealthIndicator indicator = new SupabaseAuthHealthIndicator(authClient);
+
+    @Test
+    void testOutageDoesNotTakeTheApplicationDown() {
+        when(authClient.getHealth()).thenReturn(new SupabaseAuthClient.HealthStatus(false, Instant.now(), "503", 3));
+
+        Status status = indicator.health().getStatus();
+
+        assertEquals(SupabaseAuthHealthIndicator.DEGRADED, status);
+        // The default order, used by /actuator/health, ignores DEGRADED
+        assertEquals(Status.UP, StatusAggregator.getDefault().getAggregateStatus(Set.of(Status.UP, status)));
+        // The order of the 'supabase' group in application.yml
+        StatusAggregator supabaseGroup = new SimpleStatusAggregator("degraded", "down", "out-of-service", "up", "unknown");
+        assertEquals(SupabaseAuthHealthIndicator.DEGRADED, supabaseGroup.getAggregateStatus(Set.of(status)));
+    }
+
+    @Test
+    void testReportsUnknownUntilFirstCheck() {
+        when(authClient.getHealth()).thenReturn(new SupabaseAuthClient.HealthStatus(null, null, null, 0));
+
+        assertEquals(Status.UNKNOWN, indicator.health().getStatus());
+    }
+}
@@ -0,0 +1,166 @@
+package com.tenxcards.flashcards.repository;
+
+import com.tenxcards.flashcards.controller.ResponseMapper;
+import com.tenxcards.flashcards.dto.FlashcardDTO;
+import com.tenxcards.flashcards.dto.GenerationCursor;
+import com.tenxcards.flashcards.entity.Flashcard;
+import com.tenxcards.flashcards.entity.FlashcardSource;
+import com.tenxcards.flashcards.entity.Generation;
+import com.tenxcards.flashcards.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Walks the keyset-paged generation listing, including generations created in the same
+ * instant, and counts the statements behind the generation detail.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:generations;INIT=CREATE SCHEMA IF NOT EXISTS auth",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+class GenerationRepositoryTest {
+
+    @Autowired
+    private GenerationRepository generationRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private final List<Long> newestFirst = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = persistUser("user@example.com");
+        User other = persistUser("other@example.com");
+        persistGeneration(other, LocalDateTime.of(2024, 1, 1, 12, 0));
+
+        // Seven generations, the middle three sharing a timestamp
+        LocalDateTime[] createdAt = {
+                LocalDateTime.of(2024, 1, 1, 10, 0),
+                LocalDateTime.of(2024, 1, 1, 11, 0),
+                LocalDateTime.of(2024, 1, 1, 12, 0),
+                LocalDateTime.of(2024, 1, 1, 12, 0),
+                LocalDateTime.of(2024, 1, 1, 12, 0),
+                LocalDateTime.of(2024, 1, 1, 13, 0),
+                LocalDateTime.of(2024, 1, 1, 14, 0)
+        };
+        for (LocalDateTime time : createdAt) {
+            newestFirst.add(0, persistGeneration(user, time));
+        }
+        // Ties are ordered by id, newest first
+        List<Long> tie = new ArrayList<>(newestFirst.subList(2, 5));
+        tie.sort((a, b) -> Long.compare(b, a));
+        for (int i = 0; i < tie.size(); i++) {
+            newestFirst.set(2 + i, tie.get(i));
+        }
+        entityManager.clear();
+    }
+
+    @Test
+    void testPagesCoverEveryGenerationOnceInOrder() {
+        List<Long> listed = new ArrayList<>();
+        List<GenerationSummary> page = generationRepository.findSummariesByUser(user, PageRequest.of(0, 3));
+        while (!page.isEmpty()) {
+            page.forEach(summary -> listed.add(summary.getId()));
+            GenerationSummary last = page.get(page.size() - 1);
+            GenerationCursor cursor = GenerationCursor.decode(new GenerationCursor(last.getCreatedAt(), last.getId()).encode());
+            page = generationRepository.findSummariesByUserBefore(
+                    user, cursor.getCreatedAt(), cursor.getId(), PageRequest.of(0, 3));
+        }
+
+        assertEquals(newestFirst, listed);
+    }
+
+    @Test
+    void testSummaryCarriesListedColumns() {
+        GenerationSummary summary = generationRepository.findSummariesByUser(user, PageRequest.of(0, 1)).get(0);
+
+        assertEquals(newestFirst.get(0), summary.getId());
+        assertEquals("Generation", summary.getName());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 14, 0), summary.getCreatedAt());
+        assertNotNull(summary.getStatus());
+    }
+
+    @Test
+    void testDetailLoadsGenerationAndOrderedCardsInOneStatement() {
+        Long generationId = newestFirst.get(0);
+        Generation generation = entityManager.find(Generation.class, generationId);
+        for (int order = 3; order >= 1; order--) {
+            entityManager.persist(new Flashcard("Front " + order, "Back " + order, FlashcardSource.AI_FULL, order, user, generation));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Generation detail = generationRepository.findWithFlashcardsByIdAndUser(generationId, user).orElseThrow();
+        Map<String, Object> response = ResponseMapper.toGenerationMap(detail);
+        List<FlashcardDTO> flashcards = detail.getFlashcards().stream().map(ResponseMapper::toFlashcardDTO).toList();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(user.getId().toString(), response.get("user_id"));
+        assertEquals(List.of(1, 2, 3), flashcards.stream().map(FlashcardDTO::getDisplayOrder).toList());
+        assertTrue(flashcards.stream().allMatch(dto -> generationId.equals(dto.getGenerationId())));
+        assertTrue(generationRepository.findWithFlashcardsByIdAndUser(generationId, persistUser("x@example.com")).isEmpty());
+    }
+
+    @Test
+    void testRejectsForgedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> GenerationCursor.decode("not-a-cursor"));
+    }
+
+    private User persistUser(String email) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail(email);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Long persistGeneration(User owner, LocalDateTime createdAt) {
+        Generation generation = new Generation("Generation", owner);
+        generation.setSourceTextLength(1000);
+        generation.setGenerationDuration(Duration.ofSeconds(1));
+        generation.setModel("local-stub");
+        generation.setSourceTextHash("hash");
+        entityManager.persist(generation);
+        entityManager.flush();
+        // created_at is set by Hibernate on insert; move it to the wanted instant
+        entityManager.createQuery("update Generation g set g.createdAt = :createdAt where g.id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", generation.getId())
+                .executeUpdate();
+        return generation.getId();
+    }
+}
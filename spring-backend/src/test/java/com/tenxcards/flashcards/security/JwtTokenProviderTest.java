@@ -0,0 +1,45 @@
+package com.tenxcards.flashcards.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "mySecretKey1234567890123456789012345678901234567890";
+
+    private final JwtTokenProvider tokenProvider = new JwtTokenProvider(SECRET, 60000, true, 100);
+
+    @Test
+    void testParseValidTokenReturnsClaims() {
+        String token = tokenProvider.generateToken("user-1", "user@example.com", "User");
+
+        Optional<Claims> first = tokenProvider.parseValidToken(token);
+        Optional<Claims> second = tokenProvider.parseValidToken(token);
+
+        assertEquals("user-1", first.orElseThrow().getSubject());
+        assertSame(first.get(), second.orElseThrow(), "second lookup is served from the verified-token cache");
+        assertEquals("user-1", tokenProvider.getUserIdFromToken(token));
+    }
+
+    @Test
+    void testRejectsTamperedAndForeignTokens() {
+        String token = tokenProvider.generateToken("user-1", "user@example.com", "User");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        JwtTokenProvider otherKey = new JwtTokenProvider(SECRET.replace('1', '9'), 60000, true, 100);
+
+        assertTrue(tokenProvider.parseValidToken(tampered).isEmpty());
+        assertTrue(tokenProvider.parseValidToken("not-a-jwt").isEmpty());
+        assertFalse(otherKey.validateToken(token));
+    }
+
+    @Test
+    void testExpiredTokenIsRejected() {
+        JwtTokenProvider expiring = new JwtTokenProvider(SECRET, -1000, true, 100);
+
+        assertTrue(expiring.parseValidToken(expiring.generateToken("user-1", "user@example.com", "")).isEmpty());
+    }
+}
@@ -0,0 +1,149 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import com.tenxcards.flashcards.service.ai.ProviderAtCapacityException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedGeneratorTest {
+
+    private static final String TEXT = "First sentence here. Second sentence here. Third sentence here. Fourth sentence here.";
+
+    private final ExecutorService chunkExecutor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        chunkExecutor.shutdownNow();
+    }
+
+    @Test
+    void testParallelismIsCappedByProviderCapacity() {
+        ChunkedGenerator generator = newGenerator(10000);
+        LimitedProvider provider = new LimitedProvider(8);
+
+        List<FlashcardProposalDTO> proposals = generator.generate(TEXT, 1, provider);
+
+        assertEquals(3, proposals.size());
+        assertEquals(1, provider.maxInFlight.get());
+        assertEquals(0, provider.rejected.get());
+    }
+
+    @Test
+    void testChunksRefusedAtTheLimitWaitForCapacity() {
+        ChunkedGenerator generator = newGenerator(10000);
+        LimitedProvider provider = new LimitedProvider(2);
+
+        // Both requests saw two free slots when they started
+        CompletableFuture<List<FlashcardProposalDTO>> first =
+                CompletableFuture.supplyAsync(() -> generator.generate(TEXT, 2, provider));
+        CompletableFuture<List<FlashcardProposalDTO>> second =
+                CompletableFuture.supplyAsync(() -> generator.generate(TEXT, 2, provider));
+
+        assertEquals(3, first.join().size());
+        assertEquals(3, second.join().size());
+        assertTrue(provider.maxInFlight.get() <= 2);
+    }
+
+    @Test
+    void testGivesUpOnceTheWaitIsExhausted() {
+        ChunkedGenerator generator = newGenerator(0);
+        LimitedProvider provider = new LimitedProvider(0);
+
+        assertThrows(ProviderAtCapacityException.class, () -> generator.generate(TEXT, 2, provider));
+    }
+
+    @Test
+    void testFirstFailureStopsTheSiblingChunks() throws Exception {
+        ChunkedGenerator generator = newGenerator(10000);
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger interrupted = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        CountDownLatch siblingsStarted = new CountDownLatch(2);
+
+        Function<String, List<FlashcardProposalDTO>> provider = chunk -> {
+            started.incrementAndGet();
+            try {
+                if (chunk.contains("Fourth")) {
+                    siblingsStarted.await(5, TimeUnit.SECONDS);
+                    throw new IllegalStateException("chunk failed");
+                }
+                siblingsStarted.countDown();
+                new CountDownLatch(1).await(5, TimeUnit.SECONDS);
+                completed.incrementAndGet();
+                return List.of(new FlashcardProposalDTO(chunk, "back"));
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+                throw new IllegalStateException(e);
+            }
+        };
+
+        long start = System.nanoTime();
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> generator.generate(TEXT, 8, provider));
+
+        assertEquals("chunk failed", e.getMessage());
+        // Failed without waiting for the earlier, still running chunks
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 4000);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (interrupted.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, started.get());
+        assertEquals(2, interrupted.get());
+        assertEquals(0, completed.get());
+    }
+
+    private ChunkedGenerator newGenerator(long capacityWaitMs) {
+        ChunkedGenerator generator = new ChunkedGenerator(60, 25, 0.8);
+        ReflectionTestUtils.setField(generator, "chunkExecutor", (TaskExecutor) chunkExecutor::execute);
+        ReflectionTestUtils.setField(generator, "maxParallelChunks", 8);
+        ReflectionTestUtils.setField(generator, "capacityWaitMs", capacityWaitMs);
+        return generator;
+    }
+
+    /**
+     * Answers each chunk with one distinct card after a short delay, refusing calls beyond its limit.
+     */
+    private static class LimitedProvider implements Function<String, List<FlashcardProposalDTO>> {
+
+        private final int limit;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final AtomicInteger rejected = new AtomicInteger();
+
+        LimitedProvider(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public List<FlashcardProposalDTO> apply(String chunk) {
+            int current = inFlight.incrementAndGet();
+            try {
+                if (current > limit) {
+                    rejected.incrementAndGet();
+                    throw new ProviderAtCapacityException("at limit", 1);
+                }
+                maxInFlight.accumulateAndGet(current, Math::max);
+                Thread.sleep(20);
+                return List.of(new FlashcardProposalDTO(chunk, "back"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.tenxcards.flashcards.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenxcards.flashcards.controller.ResponseMapper;
+import com.tenxcards.flashcards.entity.Flashcard;
+import com.tenxcards.flashcards.entity.FlashcardSource;
+import com.tenxcards.flashcards.entity.User;
+import com.tenxcards.flashcards.repository.FlashcardRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exports and pages a deck of 1200 cards (more than two cursor fetches) against H2.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({FlashcardExportService.class, JacksonAutoConfiguration.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:export;INIT=CREATE SCHEMA IF NOT EXISTS auth",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50"
+})
+class FlashcardExportServiceTest {
+
+    private static final int CARDS = 1200;
+
+    @Autowired
+    private FlashcardExportService flashcardExportService;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser("user@example.com");
+        User other = newUser("other@example.com");
+        entityManager.persist(new Flashcard("Other front", "Other back", FlashcardSource.MANUAL, 1, other));
+
+        for (int i = 0; i < CARDS; i++) {
+            entityManager.persist(new Flashcard("Front " + i, "Back " + i, FlashcardSource.MANUAL, i + 1, user));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testExportWritesOneLinePerCardAndKeepsNothingManaged() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = flashcardExportService.writeNdjson(user, out, ResponseMapper::toFlashcardDTO);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(CARDS, count);
+        assertEquals(CARDS, lines.length);
+        ObjectMapper mapper = new ObjectMapper();
+        long previousId = 0;
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode card = mapper.readTree(lines[i]);
+            assertEquals("Front " + i, card.get("front").asText());
+            assertTrue(card.get("id").asLong() > previousId);
+            previousId = card.get("id").asLong();
+        }
+        // Written cards were detached, so the persistence context did not grow with the deck
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void testKeysetPagesCoverTheDeckOnce() {
+        List<Long> ids = new ArrayList<>();
+        long afterId = 0;
+        List<Flashcard> page;
+        do {
+            page = flashcardRepository.findByUserAfterId(user, afterId, PageRequest.of(0, 500));
+            page.forEach(flashcard -> ids.add(flashcard.getId()));
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 500);
+
+        assertEquals(CARDS, ids.size());
+        assertEquals(CARDS, ids.stream().distinct().count());
+    }
+
+    private User newUser(String email) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail(email);
+        entityManager.persist(user);
+        return user;
+    }
+}
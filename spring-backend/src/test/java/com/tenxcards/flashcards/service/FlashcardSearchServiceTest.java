@@ -0,0 +1,86 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.entity.Flashcard;
+import com.tenxcards.flashcards.entity.FlashcardSource;
+import com.tenxcards.flashcards.entity.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query parsing, and search through the LIKE fallback on H2 (the tsvector path needs PostgreSQL).
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(FlashcardSearchService.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:search;INIT=CREATE SCHEMA IF NOT EXISTS auth",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+class FlashcardSearchServiceTest {
+
+    @Autowired
+    private FlashcardSearchService flashcardSearchService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser("user@example.com");
+        User other = newUser("other@example.com");
+        entityManager.persist(new Flashcard("What is a qubit?", "A quantum bit.", FlashcardSource.MANUAL, 1, user));
+        entityManager.persist(new Flashcard("What is entanglement?", "Quantum correlation of qubits.", FlashcardSource.MANUAL, 2, user));
+        entityManager.persist(new Flashcard("What is a bit?", "A binary digit.", FlashcardSource.MANUAL, 3, user));
+        entityManager.persist(new Flashcard("Quantum qubit", "Someone else's card.", FlashcardSource.MANUAL, 1, other));
+        entityManager.flush();
+    }
+
+    @Test
+    void testBuildsPrefixQueryFromWordsOnly() {
+        List<String> terms = FlashcardSearchService.terms("Quantum & !comp:* (bits)");
+
+        assertEquals(List.of("quantum", "comp", "bits"), terms);
+        assertEquals("quantum:* & comp:* & bits:*", FlashcardSearchService.toPrefixQuery(terms));
+        assertTrue(FlashcardSearchService.terms(" :*& ").isEmpty());
+        assertEquals(FlashcardSearchService.MAX_TERMS, FlashcardSearchService.terms("a b c d e f g h i j").size());
+    }
+
+    @Test
+    void testEveryWordMustMatchWithinTheUsersCards() {
+        assertEquals(List.of("What is a qubit?", "What is entanglement?"), fronts(flashcardSearchService.search(user, "QUANT qubit", 10)));
+        assertEquals(List.of("What is entanglement?"), fronts(flashcardSearchService.search(user, "entangle quantum", 10)));
+        assertEquals(1, flashcardSearchService.search(user, "what", 1).size());
+        assertTrue(flashcardSearchService.search(user, "else", 10).isEmpty());
+        assertTrue(flashcardSearchService.search(user, "?!", 10).isEmpty());
+    }
+
+    private static List<String> fronts(List<Flashcard> flashcards) {
+        return flashcards.stream().map(Flashcard::getFront).toList();
+    }
+
+    private User newUser(String email) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail(email);
+        entityManager.persist(user);
+        return user;
+    }
+}
@@ -0,0 +1,177 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.entity.Flashcard;
+import com.tenxcards.flashcards.entity.Generation;
+import com.tenxcards.flashcards.entity.User;
+import com.tenxcards.flashcards.repository.FlashcardRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the JDBC statements needed to replace the cards of a 50-card generation.
+ * Runs against H2 with the production batching settings.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({GenerationFlashcardService.class, DuplicateFlashcardIndex.class, ReviewQueueCache.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:flashcards;INIT=CREATE SCHEMA IF NOT EXISTS auth",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+class GenerationFlashcardServiceTest {
+
+    private static final int CARDS = 50;
+
+    @Autowired
+    private GenerationFlashcardService generationFlashcardService;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private Generation generation;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("user@example.com");
+        entityManager.persist(user);
+
+        generation = new Generation("Generation", user);
+        generation.setSourceTextLength(1000);
+        generation.setGenerationDuration(Duration.ofSeconds(1));
+        generation.setModel("local-stub");
+        generation.setSourceTextHash("hash");
+        entityManager.persist(generation);
+        entityManager.flush();
+    }
+
+    @Test
+    void testInsertingFiftyCardsIsBatched() {
+        long statements = countStatements(() -> generationFlashcardService.replaceFlashcards(generation, user, cards("v1", CARDS)));
+
+        assertEquals(CARDS, flashcardRepository.findByGenerationOrderByDisplayOrder(generation).size());
+        // select existing + sequence call + one insert batch (was 1 + 50 round trips with IDENTITY ids)
+        assertTrue(statements <= 3, "statements: " + statements);
+    }
+
+    @Test
+    void testReplacingOnlyTouchesChangedRows() {
+        generationFlashcardService.replaceFlashcards(generation, user, cards("v1", CARDS));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Map<String, Object>> updated = new ArrayList<>(cards("v1", CARDS - 10));
+        updated.set(0, card("edited front", "edited back", "ai-edited"));
+
+        long statements = countStatements(() -> generationFlashcardService.replaceFlashcards(generation, user, updated));
+
+        List<Flashcard> saved = flashcardRepository.findByGenerationOrderByDisplayOrder(generation);
+        assertEquals(CARDS - 10, saved.size());
+        assertEquals("edited front", saved.get(0).getFront());
+        assertEquals("v1 front 1", saved.get(1).getFront());
+        // select existing + one update batch + one bulk delete (was 1 select + 50 deletes + 40 inserts)
+        assertTrue(statements <= 3, "statements: " + statements);
+    }
+
+    @Test
+    void testReusedRowWithNewContentStartsANewSchedule() {
+        generationFlashcardService.replaceFlashcards(generation, user, cards("v1", 2));
+        LocalDateTime reviewedAt = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        for (Flashcard flashcard : flashcardRepository.findByGenerationOrderByDisplayOrder(generation)) {
+            flashcard.setDueAt(reviewedAt.plusDays(6));
+            flashcard.setIntervalDays(6);
+            flashcard.setEaseFactor(2.7);
+            flashcard.setRepetitions(2);
+            flashcard.setLastReviewedAt(reviewedAt);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Map<String, Object>> updated = new ArrayList<>(cards("v1", 2));
+        updated.set(1, card("new front", "new back", "ai-full"));
+        generationFlashcardService.replaceFlashcards(generation, user, updated);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Flashcard> saved = flashcardRepository.findByGenerationOrderByDisplayOrder(generation);
+        assertEquals(2, saved.get(0).getRepetitions());
+        assertEquals(reviewedAt.plusDays(6), saved.get(0).getDueAt());
+
+        Flashcard reused = saved.get(1);
+        assertEquals("new front", reused.getFront());
+        assertEquals(0, reused.getRepetitions());
+        assertEquals(0, reused.getIntervalDays());
+        assertEquals(2.5, reused.getEaseFactor());
+        assertNull(reused.getLastReviewedAt());
+        assertFalse(reused.getDueAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void testDeleteIsSingleBulkStatement() {
+        generationFlashcardService.replaceFlashcards(generation, user, cards("v1", CARDS));
+        entityManager.flush();
+        entityManager.clear();
+
+        long statements = countStatements(() -> generationFlashcardService.deleteFlashcards(generation, user));
+
+        assertEquals(0, flashcardRepository.findByGenerationOrderByDisplayOrder(generation).size());
+        assertEquals(2, statements);
+    }
+
+    private long countStatements(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static List<Map<String, Object>> cards(String prefix, int count) {
+        List<Map<String, Object>> cards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            cards.add(card(prefix + " front " + i, prefix + " back " + i, "ai-full"));
+        }
+        return cards;
+    }
+
+    private static Map<String, Object> card(String front, String back, String source) {
+        return Map.of("front", front, "back", back, "source", source);
+    }
+}
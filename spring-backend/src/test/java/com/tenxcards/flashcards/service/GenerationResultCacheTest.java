@@ -0,0 +1,83 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationResultCacheTest {
+
+    private static final List<FlashcardProposalDTO> PROPOSALS = List.of(
+            new FlashcardProposalDTO("What is a qubit?", "A quantum bit."));
+
+    @Test
+    void testHitRequiresSameHashModelAndPromptVersion() {
+        GenerationResultCache cache = new GenerationResultCache(true, 10, Duration.ofHours(1), Clock.systemUTC());
+        cache.put("hash", "gpt-4o-mini", "1", PROPOSALS);
+
+        assertTrue(cache.get("hash", "gpt-4o-mini", "1").isPresent());
+        assertTrue(cache.get("hash", "gpt-4o", "1").isEmpty());
+        assertTrue(cache.get("hash", "gpt-4o-mini", "2").isEmpty());
+        assertTrue(cache.get("other", "gpt-4o-mini", "1").isEmpty());
+
+        assertEquals("What is a qubit?", cache.get("hash", "gpt-4o-mini", "1").get().get(0).getFront());
+        assertEquals(2L, cache.getStats().get("memory_hits"));
+        assertEquals(3L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedEntryWhenFull() {
+        GenerationResultCache cache = new GenerationResultCache(true, 2, Duration.ofHours(1), Clock.systemUTC());
+        cache.put("a", "m", "1", PROPOSALS);
+        cache.put("b", "m", "1", PROPOSALS);
+        cache.get("a", "m", "1");
+        cache.put("c", "m", "1", PROPOSALS);
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.get("a", "m", "1").isPresent());
+        assertTrue(cache.get("b", "m", "1").isEmpty());
+        assertTrue(cache.get("c", "m", "1").isPresent());
+    }
+
+    @Test
+    void testExpiredEntriesAreNotReturned() {
+        MutableClock clock = new MutableClock();
+        GenerationResultCache cache = new GenerationResultCache(true, 10, Duration.ofMinutes(5), clock);
+        cache.put("hash", "m", "1", PROPOSALS);
+
+        clock.advance(Duration.ofMinutes(6));
+
+        assertTrue(cache.get("hash", "m", "1").isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import com.tenxcards.flashcards.service.ai.FlashcardGenerator.Result;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightGenerationsTest {
+
+    private static final int WAITERS = 8;
+
+    @Test
+    void testConcurrentIdenticalRequestsShareOneCall() throws Exception {
+        InFlightGenerations inFlight = new InFlightGenerations();
+        AtomicInteger providerCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<List<FlashcardProposalDTO>>> results = runConcurrently(inFlight, () -> {
+            providerCalls.incrementAndGet();
+            await(release);
+            return List.of(new FlashcardProposalDTO("front", "back"));
+        }, release);
+
+        for (Future<List<FlashcardProposalDTO>> result : results) {
+            assertEquals("front", result.get(5, TimeUnit.SECONDS).get(0).getFront());
+        }
+        assertEquals(1, providerCalls.get());
+        assertEquals(1L, inFlight.getStats().get("leader_calls"));
+        assertEquals((long) WAITERS - 1, inFlight.getStats().get("coalesced_requests"));
+        assertEquals(0, inFlight.getStats().get("in_flight"));
+    }
+
+    @Test
+    void testFailureIsPropagatedToAllWaiters() throws Exception {
+        InFlightGenerations inFlight = new InFlightGenerations();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<List<FlashcardProposalDTO>>> results = runConcurrently(inFlight, () -> {
+            await(release);
+            throw new IllegalStateException("provider down");
+        }, release);
+
+        for (Future<List<FlashcardProposalDTO>> result : results) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+            assertEquals("provider down", e.getCause().getMessage());
+        }
+        assertEquals(1L, inFlight.getStats().get("failed_calls"));
+    }
+
+    @Test
+    void testErrorIsPropagatedToAllWaiters() throws Exception {
+        InFlightGenerations inFlight = new InFlightGenerations();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<List<FlashcardProposalDTO>>> results = runConcurrently(inFlight, () -> {
+            await(release);
+            throw new AssertionError("broken parser");
+        }, release);
+
+        for (Future<List<FlashcardProposalDTO>> result : results) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AssertionError.class, e.getCause());
+        }
+        assertEquals(1L, inFlight.getStats().get("failed_calls"));
+        assertEquals(0, inFlight.getStats().get("in_flight"));
+    }
+
+    @Test
+    void testReactiveRequestsShareFlightWithBlockingRequests() throws Exception {
+        InFlightGenerations inFlight = new InFlightGenerations();
+        Sinks.One<List<FlashcardProposalDTO>> answer = Sinks.one();
+        AtomicInteger providerCalls = new AtomicInteger();
+
+        CompletableFuture<Result> leader = inFlight.executeReactive("hash", "model", () -> {
+            providerCalls.incrementAndGet();
+            return answer.asMono().map(proposals -> new Result(proposals, "model"));
+        }).toFuture();
+        CompletableFuture<Result> reactiveFollower = inFlight.executeReactive("hash", "model", () -> {
+            providerCalls.incrementAndGet();
+            return Mono.just(new Result(List.of(), "model"));
+        }).toFuture();
+        Future<Result> blockingFollower = Executors.newSingleThreadExecutor()
+                .submit(() -> inFlight.execute("hash", "model", () -> {
+                    providerCalls.incrementAndGet();
+                    return new Result(List.of(), "model");
+                }));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((long) inFlight.getStats().get("coalesced_requests") < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        answer.tryEmitValue(List.of(new FlashcardProposalDTO("front", "back")));
+
+        assertEquals("front", leader.get(5, TimeUnit.SECONDS).proposals().get(0).getFront());
+        assertEquals("front", reactiveFollower.get(5, TimeUnit.SECONDS).proposals().get(0).getFront());
+        assertEquals("front", blockingFollower.get(5, TimeUnit.SECONDS).proposals().get(0).getFront());
+        assertEquals(1, providerCalls.get());
+        assertEquals(0, inFlight.getStats().get("in_flight"));
+    }
+
+    @Test
+    void testReactiveCallWithoutResultFailsTheFlight() {
+        InFlightGenerations inFlight = new InFlightGenerations();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> inFlight.executeReactive("hash", "model", Mono::empty).block());
+
+        assertEquals("Generation completed without a result", e.getMessage());
+        assertEquals(1L, inFlight.getStats().get("failed_calls"));
+        assertEquals(0, inFlight.getStats().get("in_flight"));
+    }
+
+    @Test
+    void testReactiveCallFailingBeforeItsMonoEndsTheFlight() {
+        InFlightGenerations inFlight = new InFlightGenerations();
+
+        assertThrows(IllegalStateException.class, () -> inFlight.executeReactive("hash", "model", () -> {
+            throw new IllegalStateException("provider down");
+        }).block());
+
+        assertEquals(0, inFlight.getStats().get("in_flight"));
+        Result retried = inFlight.execute("hash", "model", () -> new Result(List.of(), "model"));
+        assertEquals("model", retried.model());
+    }
+
+    private List<Future<List<FlashcardProposalDTO>>> runConcurrently(
+            InFlightGenerations inFlight,
+            Supplier<List<FlashcardProposalDTO>> call,
+            CountDownLatch release) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(WAITERS);
+        List<Future<List<FlashcardProposalDTO>>> results = new ArrayList<>();
+        for (int i = 0; i < WAITERS; i++) {
+            results.add(executor.submit(() -> inFlight.execute("hash", "model",
+                    () -> new Result(call.get(), "model")).proposals()));
+        }
+        // Give every request time to join the flight before the provider call returns
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((long) inFlight.getStats().get("coalesced_requests") < WAITERS - 1
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        executor.shutdown();
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalFlashcardParserTest {
+
+    @Test
+    void testEmitsEachCardAsSoonAsItsObjectCloses() {
+        List<FlashcardProposalDTO> emitted = new ArrayList<>();
+        IncrementalFlashcardParser parser = new IncrementalFlashcardParser(emitted::add);
+
+        parser.feed("```json\n[\n  {\"front\": \"What is a qubit?\", ");
+        assertTrue(emitted.isEmpty());
+
+        parser.feed("\"back\": \"A quantum bit.\"}");
+        assertEquals(1, emitted.size());
+        assertEquals("What is a qubit?", emitted.get(0).getFront());
+
+        parser.feed(",\n  {\"front\": \"What is superposition?\", \"back\": \"Being in several states at once.\"}\n]\n```");
+        assertEquals(2, emitted.size());
+        assertEquals("Being in several states at once.", emitted.get(1).getBack());
+        assertEquals(emitted, parser.getProposals());
+    }
+
+    @Test
+    void testBracesAndQuotesInsideStringsDoNotEndTheCard() {
+        List<FlashcardProposalDTO> emitted = new ArrayList<>();
+        IncrementalFlashcardParser parser = new IncrementalFlashcardParser(emitted::add);
+
+        String json = "[{\"front\": \"What does {} mean in \\\"Java\\\"?\", \"back\": \"An empty block } [ ]\"}]";
+        for (char c : json.toCharArray()) {
+            parser.feed(String.valueOf(c));
+        }
+
+        assertEquals(1, emitted.size());
+        assertEquals("What does {} mean in \"Java\"?", emitted.get(0).getFront());
+        assertEquals("An empty block } [ ]", emitted.get(0).getBack());
+    }
+
+    @Test
+    void testBracketsInThePreambleDoNotStartTheArray() {
+        List<FlashcardProposalDTO> emitted = new ArrayList<>();
+        IncrementalFlashcardParser parser = new IncrementalFlashcardParser(emitted::add);
+
+        parser.feed("Here are [5] cards:\n[");
+        parser.feed("\n  {\"front\": \"Q1\", \"back\": \"A1\"}");
+        assertEquals(1, emitted.size());
+
+        parser.feed(", {\"front\": \"Q2\", \"back\": \"A2\"}]");
+        assertEquals(List.of("Q1", "Q2"), emitted.stream().map(FlashcardProposalDTO::getFront).toList());
+    }
+
+    @Test
+    void testStrayClosingBraceBetweenCardsIsIgnored() {
+        List<FlashcardProposalDTO> emitted = new ArrayList<>();
+        IncrementalFlashcardParser parser = new IncrementalFlashcardParser(emitted::add);
+
+        parser.feed("[{\"front\": \"Q1\", \"back\": \"A1\"}},\n{\"front\": \"Q2\", \"back\": \"A2\"}]");
+
+        assertEquals(List.of("Q1", "Q2"), emitted.stream().map(FlashcardProposalDTO::getFront).toList());
+    }
+
+    @Test
+    void testNonJsonResponseEmitsNothingButKeepsFullText() {
+        List<FlashcardProposalDTO> emitted = new ArrayList<>();
+        IncrementalFlashcardParser parser = new IncrementalFlashcardParser(emitted::add);
+
+        parser.feed("FRONT: What is a qubit?\n");
+        parser.feed("BACK: A quantum bit.\n---");
+
+        assertTrue(emitted.isEmpty());
+        assertEquals("FRONT: What is a qubit?\nBACK: A quantum bit.\n---", parser.getFullText());
+    }
+}
@@ -0,0 +1,48 @@
+package com.tenxcards.flashcards.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LshIndexTest {
+
+    private final MinHasher minHasher = new MinHasher(128, 5);
+
+    @Test
+    void testSignatureIgnoresCaseAndPunctuation() {
+        int[] a = minHasher.signature("What is the capital of France? Paris");
+        int[] b = minHasher.signature("what is the capital of france  paris!");
+
+        assertEquals(1.0, MinHasher.similarity(a, b));
+        assertTrue(MinHasher.similarity(a, minHasher.signature("Define photosynthesis. Conversion of light into energy")) < 0.2);
+    }
+
+    @Test
+    void testFindsNearDuplicateAndSkipsExcludedId() {
+        LshIndex index = new LshIndex(16, 8);
+        index.put(1L, minHasher.signature("What is the powerhouse of the cell? The mitochondria"));
+        index.put(2L, minHasher.signature("Who wrote Hamlet? William Shakespeare"));
+
+        int[] query = minHasher.signature("What is the powerhouse of the cell? Mitochondria");
+
+        assertEquals(Optional.of(1L), index.findMostSimilar(query, 0.6, null));
+        assertEquals(Optional.empty(), index.findMostSimilar(query, 0.6, 1L));
+        assertEquals(Optional.empty(), index.findMostSimilar(minHasher.signature("Speed of light in vacuum? 299,792 km/s"), 0.6, null));
+    }
+
+    @Test
+    void testRemovedItemsAreNoLongerFound() {
+        LshIndex index = new LshIndex(16, 8);
+        int[] signature = minHasher.signature("Who wrote Hamlet? William Shakespeare");
+        index.put(7L, signature);
+        index.put(7L, signature);
+        assertEquals(1, index.size());
+
+        index.remove(7L);
+
+        assertEquals(0, index.size());
+        assertEquals(Optional.empty(), index.findMostSimilar(signature, 0.5, null));
+    }
+}
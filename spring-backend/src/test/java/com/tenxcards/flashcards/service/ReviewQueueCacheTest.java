@@ -0,0 +1,158 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.entity.Flashcard;
+import com.tenxcards.flashcards.entity.FlashcardSource;
+import com.tenxcards.flashcards.entity.User;
+import com.tenxcards.flashcards.repository.FlashcardRepository;
+import com.tenxcards.flashcards.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Review sessions served from the in-memory queue, with committed data so the
+ * write-back runs in its own transaction as in production.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ReviewService.class, ReviewQueueCache.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reviewqueue;INIT=CREATE SCHEMA IF NOT EXISTS auth",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "flashcards.review.queue.warm-size=3"
+})
+class ReviewQueueCacheTest {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ReviewQueueCache reviewQueue;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private final List<Flashcard> cards = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = newUser();
+
+        // Five due cards, oldest first; only three fit in the queue
+        for (int i = 5; i >= 1; i--) {
+            cards.add(dueCard(user, i));
+        }
+    }
+
+    @Test
+    void testAnswersAreServedFromMemoryAndWrittenBackInOneBatch() {
+        long rowsWritten = (Long) reviewQueue.getStats().get("rows_written");
+        assertEquals(ids(cards.subList(0, 2)), ids(reviewService.findDue(user, 2)));
+
+        reviewService.review(user, cards.get(0).getId(), 5);
+        reviewService.review(user, cards.get(1).getId(), 0);
+
+        // Rescheduled in memory only
+        assertEquals(ids(cards.subList(2, 3)), ids(reviewService.findDue(user, 1)));
+        assertTrue(flashcardRepository.findById(cards.get(0).getId()).orElseThrow().getDueAt().isBefore(LocalDateTime.now()));
+        assertEquals(2, reviewQueue.getStats().get("pending_reviews"));
+
+        reviewQueue.writeBack();
+
+        Flashcard passed = flashcardRepository.findById(cards.get(0).getId()).orElseThrow();
+        Flashcard lapsed = flashcardRepository.findById(cards.get(1).getId()).orElseThrow();
+        assertEquals(1, passed.getRepetitions());
+        assertTrue(passed.getDueAt().isAfter(LocalDateTime.now()));
+        assertEquals(0, lapsed.getRepetitions());
+        assertEquals(1, lapsed.getIntervalDays());
+        assertEquals(0, reviewQueue.getStats().get("pending_reviews"));
+        assertEquals(rowsWritten + 2, reviewQueue.getStats().get("rows_written"));
+    }
+
+    @Test
+    void testReloadsWhenUncachedCardsMayBeDue() {
+        long reloads = (Long) reviewQueue.getStats().get("reloads");
+        reviewService.findDue(user, 1);
+        for (Flashcard flashcard : cards.subList(0, 3)) {
+            reviewService.review(user, flashcard.getId(), 4);
+        }
+
+        // The three cached cards are no longer due; the two beyond them are
+        List<Flashcard> due = reviewService.findDue(user, 5);
+
+        assertEquals(ids(cards.subList(3, 5)), ids(due));
+        assertEquals(reloads + 1, reviewQueue.getStats().get("reloads"));
+        // The reload wrote the three answers back first
+        assertEquals(2, flashcardRepository.findDue(user, LocalDateTime.now(), PageRequest.of(0, 10)).size());
+    }
+
+    @Test
+    void testFlushWritesOnlyThatUsersAnswers() {
+        User other = newUser();
+        Flashcard otherCard = dueCard(other, 1);
+        reviewService.findDue(user, 1);
+        reviewService.findDue(other, 1);
+        reviewService.review(user, cards.get(0).getId(), 5);
+        reviewService.review(other, otherCard.getId(), 5);
+
+        reviewQueue.flush(user);
+
+        assertEquals(1, flashcardRepository.findById(cards.get(0).getId()).orElseThrow().getRepetitions());
+        assertEquals(0, flashcardRepository.findById(otherCard.getId()).orElseThrow().getRepetitions());
+        assertEquals(1, reviewQueue.getStats().get("pending_reviews"));
+    }
+
+    @Test
+    void testReviewOutsideTheQueueIsSavedBeforeTheQueueIsDropped() {
+        reviewService.findDue(user, 1);
+        long loads = (Long) reviewQueue.getStats().get("loads");
+
+        // Beyond the three cached cards, so answered in the database
+        reviewService.review(user, cards.get(4).getId(), 5);
+
+        assertEquals(1, flashcardRepository.findById(cards.get(4).getId()).orElseThrow().getRepetitions());
+        reviewService.findDue(user, 1);
+        assertEquals(loads + 1, reviewQueue.getStats().get("loads"));
+    }
+
+    private User newUser() {
+        User newUser = new User();
+        newUser.setId(UUID.randomUUID());
+        newUser.setEmail(newUser.getId() + "@example.com");
+        return userRepository.save(newUser);
+    }
+
+    private Flashcard dueCard(User owner, int daysOverdue) {
+        Flashcard flashcard = new Flashcard("Front " + daysOverdue, "Back " + daysOverdue, FlashcardSource.MANUAL, daysOverdue, owner);
+        flashcard.setDueAt(LocalDateTime.now().minusDays(daysOverdue));
+        return flashcardRepository.save(flashcard);
+    }
+
+    private static List<Long> ids(List<Flashcard> flashcards) {
+        return flashcards.stream().map(Flashcard::getId).toList();
+    }
+}
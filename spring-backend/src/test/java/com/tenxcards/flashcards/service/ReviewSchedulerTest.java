@@ -0,0 +1,52 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.entity.Flashcard;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewSchedulerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Test
+    void testPassingGradesGrowTheInterval() {
+        Flashcard flashcard = new Flashcard();
+
+        ReviewScheduler.review(flashcard, 4, NOW);
+        assertEquals(1, flashcard.getIntervalDays());
+        assertEquals(NOW.plusDays(1), flashcard.getDueAt());
+
+        ReviewScheduler.review(flashcard, 4, NOW.plusDays(1));
+        assertEquals(6, flashcard.getIntervalDays());
+
+        ReviewScheduler.review(flashcard, 5, NOW.plusDays(7));
+        assertEquals(15, flashcard.getIntervalDays());
+        assertEquals(3, flashcard.getRepetitions());
+        assertEquals(2.6, flashcard.getEaseFactor(), 1e-9);
+        assertEquals(NOW.plusDays(22), flashcard.getDueAt());
+        assertEquals(NOW.plusDays(7), flashcard.getLastReviewedAt());
+    }
+
+    @Test
+    void testLapseRestartsTheCardAndLowersEase() {
+        Flashcard flashcard = new Flashcard();
+        flashcard.setRepetitions(5);
+        flashcard.setIntervalDays(40);
+        flashcard.setEaseFactor(1.4);
+
+        ReviewScheduler.review(flashcard, 1, NOW);
+
+        assertEquals(0, flashcard.getRepetitions());
+        assertEquals(1, flashcard.getIntervalDays());
+        assertEquals(ReviewScheduler.MIN_EASE_FACTOR, flashcard.getEaseFactor(), 1e-9);
+        assertEquals(NOW.plusDays(1), flashcard.getDueAt());
+    }
+
+    @Test
+    void testRejectsGradeOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> ReviewScheduler.review(new Flashcard(), 6, NOW));
+    }
+}
@@ -0,0 +1,98 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.entity.Flashcard;
+import com.tenxcards.flashcards.entity.FlashcardSource;
+import com.tenxcards.flashcards.entity.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The due queue and recording of reviews against H2, without the in-memory queue.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ReviewService.class, ReviewQueueCache.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:review;INIT=CREATE SCHEMA IF NOT EXISTS auth",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "flashcards.review.queue.enabled=false"
+})
+class ReviewServiceTest {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("user@example.com");
+        entityManager.persist(user);
+    }
+
+    @Test
+    void testDueQueueIsMostOverdueFirstAndSkipsFutureCards() {
+        LocalDateTime now = LocalDateTime.now();
+        Flashcard dueYesterday = persist("Yesterday", now.minusDays(1));
+        Flashcard dueLastWeek = persist("Last week", now.minusDays(7));
+        persist("Tomorrow", now.plusDays(1));
+        Flashcard newCard = persist("New", null);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Flashcard> due = reviewService.findDue(user, 10);
+
+        assertEquals(List.of(dueLastWeek.getId(), dueYesterday.getId(), newCard.getId()),
+                due.stream().map(Flashcard::getId).toList());
+        assertEquals(1, reviewService.findDue(user, 1).size());
+    }
+
+    @Test
+    void testReviewReschedulesOnlyTheUsersOwnCard() {
+        Flashcard flashcard = persist("Card", LocalDateTime.now().minusDays(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        Flashcard reviewed = reviewService.review(user, flashcard.getId(), 5).orElseThrow();
+        entityManager.flush();
+        entityManager.clear();
+
+        assertTrue(reviewed.getDueAt().isAfter(LocalDateTime.now()));
+        assertTrue(reviewService.findDue(user, 10).isEmpty());
+
+        User other = new User();
+        other.setId(UUID.randomUUID());
+        other.setEmail("other@example.com");
+        entityManager.persist(other);
+        assertTrue(reviewService.review(other, flashcard.getId(), 5).isEmpty());
+    }
+
+    private Flashcard persist(String front, LocalDateTime dueAt) {
+        Flashcard flashcard = new Flashcard(front, "Back", FlashcardSource.MANUAL, 1, user);
+        flashcard.setDueAt(dueAt);
+        entityManager.persist(flashcard);
+        return flashcard;
+    }
+}
@@ -0,0 +1,128 @@
+package com.tenxcards.flashcards.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.tenxcards.flashcards.dto.LoginUserCommand;
+import com.tenxcards.flashcards.dto.LoginUserResponseDTO;
+import com.tenxcards.flashcards.security.JwtTokenProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SupabaseAuthClientTest {
+
+    private static final String USER_ID = "3f2a0c1e-4b5d-4e6f-8a9b-0c1d2e3f4a5b";
+
+    private HttpServer server;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private volatile int settingsStatus = 200;
+    private SimpleMeterRegistry registry;
+    private SupabaseAuthClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/auth/v1/", exchange -> {
+            requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI());
+            exchange.getRequestBody().readAllBytes();
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/token")) {
+                respond(exchange, 200, "{\"access_token\":\"supabase\",\"user\":{\"id\":\"" + USER_ID + "\",\"email\":\"a@b.c\"}}");
+            } else if (path.endsWith("/settings")) {
+                respond(exchange, settingsStatus, "{}");
+            } else {
+                respond(exchange, 404, "{}");
+            }
+        });
+        server.start();
+        registry = new SimpleMeterRegistry();
+        client = new SupabaseAuthClient("http://127.0.0.1:" + server.getAddress().getPort(), "anon",
+                1000, 2000, 4, 1000, 2000, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testLoginIsASingleTokenCall() {
+        JwtTokenProvider jwtTokenProvider = mock(JwtTokenProvider.class);
+        when(jwtTokenProvider.generateToken(eq(USER_ID), eq("a@b.c"), anyString())).thenReturn("jwt");
+        SupabaseAuthService service = new SupabaseAuthService(client, jwtTokenProvider);
+        LoginUserCommand command = new LoginUserCommand();
+        command.setEmail("a@b.c");
+        command.setPassword("secret");
+
+        LoginUserResponseDTO response = service.login(command).block(Duration.ofSeconds(5));
+
+        assertEquals("jwt", response.getToken());
+        assertEquals(USER_ID, response.getUser().getId());
+        assertEquals(List.of("POST /auth/v1/token?grant_type=password"), requests);
+        assertEquals(1, registry.get("supabase.auth.requests")
+                .tags("endpoint", "token", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void testHealthCheckIsCached() throws Exception {
+        assertNull(client.getHealth().up());
+
+        client.checkHealth();
+        awaitHealth(true);
+        assertEquals(1.0, registry.get("supabase.auth.up").gauge().value());
+
+        settingsStatus = 503;
+        client.checkHealth();
+        awaitHealth(false);
+        assertEquals(1, client.getHealth().consecutiveFailures());
+        assertEquals(0.0, registry.get("supabase.auth.up").gauge().value());
+        assertEquals(1, registry.get("supabase.auth.requests")
+                .tags("endpoint", "settings", "outcome", "server_error").timer().count());
+
+        // Reading the status does not probe again
+        int probes = requests.size();
+        client.getHealth();
+        client.getStats();
+        assertEquals(probes, requests.size());
+    }
+
+    @Test
+    void testClientErrorIsSignalledAndTagged() {
+        assertThrows(WebClientResponseException.class,
+                () -> client.signup("a@b.c", "secret", "http://localhost/auth/callback").block(Duration.ofSeconds(5)));
+        assertEquals(1, registry.get("supabase.auth.requests")
+                .tags("endpoint", "signup", "outcome", "client_error").timer().count());
+    }
+
+    private void awaitHealth(boolean up) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Boolean.valueOf(up).equals(client.getHealth().up()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(up, client.getHealth().up());
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
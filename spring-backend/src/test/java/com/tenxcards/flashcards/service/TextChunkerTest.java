@@ -0,0 +1,70 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextChunkerTest {
+
+    @Test
+    void testShortTextIsSingleChunk() {
+        TextChunker chunker = new TextChunker(100, 20);
+
+        assertEquals(List.of("Short text."), chunker.split("  Short text.\n"));
+    }
+
+    @Test
+    void testChunksEndOnSentenceBoundariesAndOverlap() {
+        TextChunker chunker = new TextChunker(60, 25);
+        String text = "First sentence here. Second sentence here. Third sentence here. Fourth sentence here.";
+
+        List<String> chunks = chunker.split(text);
+
+        assertEquals(List.of(
+                "First sentence here. Second sentence here.",
+                "Second sentence here. Third sentence here.",
+                "Third sentence here. Fourth sentence here."), chunks);
+    }
+
+    @Test
+    void testPrefersParagraphBoundaryAndCutsOverlongSentence() {
+        TextChunker chunker = new TextChunker(40, 0);
+        String text = "Alpha beta gamma delta epsilon zeta.\n\nNew paragraph.\n\n" + "x".repeat(50);
+
+        List<String> chunks = chunker.split(text);
+
+        assertEquals(List.of("Alpha beta gamma delta epsilon zeta.", "New paragraph.", "x".repeat(40), "x".repeat(10)), chunks);
+        assertTrue(chunks.stream().allMatch(chunk -> chunk.length() <= 40));
+    }
+
+    @Test
+    void testParagraphBreaksInTheOverlapCountTowardsTheChunkSize() {
+        TextChunker chunker = new TextChunker(32, 22);
+        String text = "Cell one.\n\nCell two.\n\nCell three.\n\nCell four.\n\nCell five.";
+
+        List<String> chunks = chunker.split(text);
+
+        assertEquals(List.of(
+                "Cell one.\n\nCell two.",
+                "Cell two.\n\nCell three.",
+                "Cell three.\n\nCell four.",
+                "Cell four.\n\nCell five."), chunks);
+        assertTrue(chunks.stream().allMatch(chunk -> chunk.length() <= 32));
+    }
+
+    @Test
+    void testDeduplicatorDropsNearIdenticalFronts() {
+        FlashcardDeduplicator deduplicator = new FlashcardDeduplicator(0.8);
+
+        List<FlashcardProposalDTO> result = deduplicator.deduplicate(List.of(
+                new FlashcardProposalDTO("What is the capital of France?", "Paris"),
+                new FlashcardProposalDTO("What is the capital of France", "Paris."),
+                new FlashcardProposalDTO("What is the capital of Spain?", "Madrid")));
+
+        assertEquals(2, result.size());
+        assertEquals("Madrid", result.get(1).getBack());
+    }
+}
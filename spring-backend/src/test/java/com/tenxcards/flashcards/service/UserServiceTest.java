@@ -0,0 +1,64 @@
+package com.tenxcards.flashcards.service;
+
+import com.tenxcards.flashcards.entity.User;
+import com.tenxcards.flashcards.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserService userService = new UserService();
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userService, "principalCacheEnabled", true);
+        ReflectionTestUtils.setField(userService, "principalCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(userService, "principalCacheTtlSeconds", 300L);
+        userService.initPrincipalCache();
+
+        User user = new User();
+        user.setId(userId);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void testRepeatedLookupsHitCache() {
+        userService.loadUserById(userId);
+        userService.loadUserById(userId);
+        userService.loadUserById(userId);
+
+        verify(userRepository, times(1)).findById(userId);
+        assertEquals(2L, userService.getPrincipalCacheStats().get("hits"));
+    }
+
+    @Test
+    void testInvalidationReloadsUser() {
+        userService.loadUserById(userId);
+        userService.invalidatePrincipal(userId);
+        userService.loadUserById(userId);
+
+        verify(userRepository, times(2)).findById(userId);
+    }
+
+    @Test
+    void testUnknownUserIsNotCached() {
+        UUID unknown = UUID.randomUUID();
+        when(userRepository.findById(unknown)).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserById(unknown));
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserById(unknown));
+
+        verify(userRepository, times(2)).findById(unknown);
+    }
+}
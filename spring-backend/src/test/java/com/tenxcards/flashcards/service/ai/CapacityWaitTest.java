@@ -0,0 +1,52 @@
+package com.tenxcards.flashcards.service.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapacityWaitTest {
+
+    @Test
+    void testRetriesUntilTheProviderHasASlot() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = CapacityWait.call(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ProviderAtCapacityException("at limit", 1);
+            }
+            return "answer";
+        }, 10000);
+
+        assertEquals("answer", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testGivesUpOnceTheWaitIsExhausted() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ProviderAtCapacityException.class, () -> CapacityWait.call(() -> {
+            attempts.incrementAndGet();
+            throw new ProviderAtCapacityException("at limit", 1);
+        }, 0));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testOtherFailuresAndCancellationAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () -> CapacityWait.call(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("down");
+        }, 10000));
+        assertEquals(1, attempts.get());
+
+        AtomicBoolean cancelled = new AtomicBoolean(true);
+        assertThrows(ProviderAtCapacityException.class, () -> CapacityWait.call(() -> {
+            throw new ProviderAtCapacityException("at limit", 1);
+        }, 10000, cancelled::get));
+    }
+}
@@ -0,0 +1,95 @@
+package com.tenxcards.flashcards.service.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private CircuitBreaker newBreaker() {
+        return new CircuitBreaker("test", 10, 4, 0.5, Duration.ofSeconds(30), 1, nanos::get);
+    }
+
+    @Test
+    void testOpensOnceFailureRateReachesThreshold() {
+        CircuitBreaker breaker = newBreaker();
+
+        for (int i = 0; i < 2; i++) {
+            breaker.onSuccess(acquire(breaker));
+        }
+        breaker.onFailure(acquire(breaker));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure(acquire(breaker));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire());
+        assertEquals(30_000, breaker.getRetryAfterMillis());
+        assertEquals(1L, breaker.getStats().get("rejected_calls"));
+    }
+
+    @Test
+    void testHalfOpenTrialClosesOrReopensBreaker() {
+        CircuitBreaker breaker = newBreaker();
+        open(breaker);
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        CircuitBreaker.Permit trial = acquire(breaker);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, trial.getState());
+        assertNull(breaker.tryAcquire(), "only one trial call is allowed");
+        breaker.onFailure(trial);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        breaker.onSuccess(acquire(breaker));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getRetryAfterMillis());
+    }
+
+    @Test
+    void testReleasedTrialDoesNotCountAsOutcome() {
+        CircuitBreaker breaker = newBreaker();
+        open(breaker);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        breaker.release(acquire(breaker));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertNotNull(breaker.tryAcquire());
+    }
+
+    @Test
+    void testCallAdmittedWhileClosedDoesNotTouchHalfOpenTrials() {
+        CircuitBreaker breaker = newBreaker();
+        CircuitBreaker.Permit slowCall = acquire(breaker);
+        open(breaker);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        CircuitBreaker.Permit trial = acquire(breaker);
+
+        breaker.release(slowCall);
+        assertNull(breaker.tryAcquire(), "the trial slot is still taken");
+        breaker.onSuccess(slowCall);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.onFailure(trial);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private static CircuitBreaker.Permit acquire(CircuitBreaker breaker) {
+        CircuitBreaker.Permit permit = breaker.tryAcquire();
+        assertNotNull(permit);
+        return permit;
+    }
+
+    private static void open(CircuitBreaker breaker) {
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(acquire(breaker));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,58 @@
+package com.tenxcards.flashcards.service.ai;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlashcardProposalParserTest {
+
+    @Test
+    void testParsesJsonArrayAfterProseAndCodeFence() {
+        String response = "Here are your [5-10] flashcards:\n```json\n[\n"
+                + "  {\"front\": \"What is a qubit?\", \"back\": \"A quantum bit.\", \"difficulty\": \"easy\"},\n"
+                + "  {\"front\": \"What is [superposition]?\", \"back\": \"Being in several states at once.\"}\n"
+                + "]\n```\nLet me know if you need more.";
+
+        List<FlashcardProposalDTO> result = FlashcardProposalParser.parse(response);
+
+        assertEquals(2, result.size());
+        assertEquals("What is a qubit?", result.get(0).getFront());
+        assertEquals("Being in several states at once.", result.get(1).getBack());
+        assertEquals("ai-full", result.get(1).getSource());
+    }
+
+    @Test
+    void testTruncatedJsonKeepsCompleteCards() {
+        String response = "[{\"front\": \"Q1\", \"back\": \"A1\"}, {\"front\": \"Q2\", \"ba";
+
+        List<FlashcardProposalDTO> result = FlashcardProposalParser.parse(response);
+
+        assertEquals(1, result.size());
+        assertEquals("Q1", result.get(0).getFront());
+    }
+
+    @Test
+    void testFallsBackToFrontBackFormat() {
+        String response = "FRONT: What is a qubit?\nBACK: A quantum bit.\n---\n"
+                + "FRONT:   What is entanglement?  \nBACK:\n  Correlated qubits.\n---\n"
+                + "FRONT: Missing back\n---\n";
+
+        List<FlashcardProposalDTO> result = FlashcardProposalParser.parse(response);
+
+        assertEquals(2, result.size());
+        assertEquals("What is a qubit?", result.get(0).getFront());
+        assertEquals("A quantum bit.", result.get(0).getBack());
+        assertEquals("What is entanglement?", result.get(1).getFront());
+        assertEquals("Correlated qubits.", result.get(1).getBack());
+    }
+
+    @Test
+    void testReturnsEmptyListForUnparseableAnswer() {
+        assertTrue(FlashcardProposalParser.parse("I cannot help with that.").isEmpty());
+        assertTrue(FlashcardProposalParser.parse("[]").isEmpty());
+        assertTrue(FlashcardProposalParser.parse(null).isEmpty());
+    }
+}
@@ -0,0 +1,148 @@
+package com.tenxcards.flashcards.service.ai;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ManagedFlashcardGeneratorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LlmMetrics llmMetrics = new LlmMetrics(registry);
+
+    private ManagedFlashcardGenerator managed(FlashcardGenerator provider, int maxConcurrency) {
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 1, 0.5, Duration.ofSeconds(30), 1);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(maxConcurrency, maxConcurrency, 20000, 0.9);
+        return new ManagedFlashcardGenerator(provider, breaker, limiter, 1, llmMetrics);
+    }
+
+    @Test
+    void testRecordsLatencyByOutcome() {
+        ManagedFlashcardGenerator ok = managed(provider(() -> List.of(new FlashcardProposalDTO("Q", "A"))), 1);
+        ManagedFlashcardGenerator failing = managed(provider(() -> { throw new IllegalStateException("boom"); }), 1);
+
+        ok.generateFlashcards("text");
+        ok.generateFlashcards("text");
+        assertThrows(IllegalStateException.class, () -> failing.generateFlashcards("text"));
+
+        assertEquals(2, registry.get(LlmMetrics.REQUESTS)
+                .tags("provider", "stub", "model", "stub-model", "outcome", "success").timer().count());
+        assertEquals(1, registry.get(LlmMetrics.REQUESTS).tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    void testCountsRejectedCalls() {
+        ManagedFlashcardGenerator failing = managed(provider(() -> { throw new IllegalStateException("boom"); }), 1);
+
+        assertThrows(IllegalStateException.class, () -> failing.generateFlashcards("text"));
+        // One failure out of one call (min-calls 1) opens the breaker
+        assertThrows(ProviderUnavailableException.class, () -> failing.generateFlashcards("text"));
+
+        assertEquals(1, registry.get(LlmMetrics.REJECTIONS).tag("reason", "circuit_open").counter().count());
+        assertEquals(1, registry.get(LlmMetrics.REQUESTS).timer().count());
+    }
+
+    @Test
+    void testErrorReleasesPermits() {
+        ManagedFlashcardGenerator failing = managed(provider(() -> { throw new StackOverflowError(); }), 1);
+
+        assertThrows(StackOverflowError.class, () -> failing.generateFlashcards("text"));
+
+        assertEquals(0, failing.getLimiter().getInFlight());
+        assertEquals(1, registry.get(LlmMetrics.REQUESTS).tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    void testReactiveCallHoldsPermitUntilCompletionOrCancel() {
+        Sinks.One<List<FlashcardProposalDTO>> answer = Sinks.one();
+        ManagedFlashcardGenerator generator = managed(reactiveProvider(answer::asMono), 1);
+
+        Disposable first = generator.generateFlashcardsReactive("text").subscribe();
+        assertEquals(1, generator.getLimiter().getInFlight());
+        // The only permit is taken until the first call ends
+        assertThrows(ProviderUnavailableException.class, () -> generator.generateFlashcardsReactive("text").block());
+
+        first.dispose();
+        assertEquals(0, generator.getLimiter().getInFlight());
+        assertEquals(1, registry.get(LlmMetrics.REQUESTS).tag("outcome", "cancelled").timer().count());
+
+        Sinks.One<List<FlashcardProposalDTO>> second = Sinks.one();
+        ManagedFlashcardGenerator ok = managed(reactiveProvider(second::asMono), 1);
+        second.tryEmitValue(List.of(new FlashcardProposalDTO("Q", "A")));
+        assertEquals(1, ok.generateFlashcardsReactive("text").block().size());
+        assertEquals(0, ok.getLimiter().getInFlight());
+        assertEquals(1, registry.get(LlmMetrics.REQUESTS).tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void testReactiveCallFailingBeforeItsMonoReleasesPermit() {
+        ManagedFlashcardGenerator generator = managed(reactiveProvider(() -> {
+            throw new IllegalStateException("request could not be built");
+        }), 1);
+
+        assertThrows(IllegalStateException.class, () -> generator.generateFlashcardsReactive("text").block());
+
+        assertEquals(0, generator.getLimiter().getInFlight());
+        assertEquals(1, registry.get(LlmMetrics.REQUESTS).tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    void testCountsTokensByType() {
+        llmMetrics.recordTokens("stub", "stub-model", 120, 80);
+        llmMetrics.recordTokens("stub", "stub-model", 30, -1);
+
+        assertEquals(150, registry.get(LlmMetrics.TOKENS).tag("type", "prompt").counter().count());
+        assertEquals(80, registry.get(LlmMetrics.TOKENS).tag("type", "completion").counter().count());
+    }
+
+    private static FlashcardGenerator reactiveProvider(Supplier<Mono<List<FlashcardProposalDTO>>> answer) {
+        return new FlashcardGenerator() {
+            @Override
+            public String getName() {
+                return "stub";
+            }
+
+            @Override
+            public String getModel() {
+                return "stub-model";
+            }
+
+            @Override
+            public List<FlashcardProposalDTO> generateFlashcards(String text) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Mono<List<FlashcardProposalDTO>> generateFlashcardsReactive(String text) {
+                return answer.get();
+            }
+        };
+    }
+
+    private static FlashcardGenerator provider(Supplier<List<FlashcardProposalDTO>> answer) {
+        return new FlashcardGenerator() {
+            @Override
+            public String getName() {
+                return "stub";
+            }
+
+            @Override
+            public String getModel() {
+                return "stub-model";
+            }
+
+            @Override
+            public List<FlashcardProposalDTO> generateFlashcards(String text) {
+                return answer.get();
+            }
+        };
+    }
+}
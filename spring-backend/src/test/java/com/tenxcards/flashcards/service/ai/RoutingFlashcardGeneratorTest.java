@@ -0,0 +1,296 @@
+package com.tenxcards.flashcards.service.ai;
+
+import com.tenxcards.flashcards.dto.FlashcardProposalDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingFlashcardGeneratorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService hedgeExecutor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    @Test
+    void testRouterIsNotWrappedAsAProvider() {
+        RoutingFlashcardGenerator router = new RoutingFlashcardGenerator();
+        FlashcardGeneratorRegistry registry = registry(router, "routing",
+                provider("first", "model-a", () -> cards("A")), provider("second", "model-b", () -> cards("B")));
+        configure(router, registry, false, 20, 10000);
+
+        assertSame(router, registry.getActive());
+        assertEquals(List.of("first", "second"), registry.getAll().stream().map(FlashcardGenerator::getName).toList());
+        assertEquals(List.of("model-a", "model-b"), router.getModels());
+
+        FlashcardGenerator.Result result = router.generate("text");
+        assertEquals("model-a", result.model());
+        assertEquals("A", result.proposals().get(0).getFront());
+    }
+
+    @Test
+    void testPrefersTheFasterProvider() {
+        RoutingFlashcardGenerator router = new RoutingFlashcardGenerator();
+        FlashcardGeneratorRegistry registry = registry(router, "routing",
+                provider("slow", "slow-model", () -> { sleep(30); return cards("slow"); }),
+                provider("fast", "fast-model", () -> cards("fast")));
+        configure(router, registry, false, 2, 10000);
+        for (int i = 0; i < 2; i++) {
+            registry.get("slow").generateFlashcards("warm-up");
+            registry.get("fast").generateFlashcards("warm-up");
+        }
+
+        assertEquals("fast-model", router.getModel());
+        assertEquals("fast-model", router.generate("text").model());
+        assertEquals(Map.of("fast", 1L), router.getStats().get("primary_decisions"));
+    }
+
+    @Test
+    void testHedgeWinsAndLoserIsRecordedAsCancelled() throws Exception {
+        CountDownLatch loserDone = new CountDownLatch(1);
+        RoutingFlashcardGenerator router = new RoutingFlashcardGenerator();
+        FlashcardGeneratorRegistry registry = registry(router, "routing",
+                provider("stuck", "stuck-model", () -> {
+                    try {
+                        new CountDownLatch(1).await(5, TimeUnit.SECONDS);
+                        return cards("stuck");
+                    } catch (InterruptedException e) {
+                        // Like OkHttp: the interrupt surfaces as an InterruptedIOException with the flag cleared
+                        throw new UncheckedIOException(new InterruptedIOException("interrupted"));
+                    } finally {
+                        loserDone.countDown();
+                    }
+                }),
+                provider("backup", "backup-model", () -> cards("backup")));
+        configure(router, registry, true, 20, 50);
+
+        FlashcardGenerator.Result result = router.generate("text");
+
+        assertEquals("backup-model", result.model());
+        assertEquals(1L, router.getStats().get("hedges_fired"));
+        assertEquals(1L, router.getStats().get("hedge_wins"));
+        assertTrue(loserDone.await(5, TimeUnit.SECONDS));
+        ManagedFlashcardGenerator loser = registry.managed("stuck");
+        awaitIdle(loser);
+        assertEquals(0, loser.getMetrics().getErrors());
+        assertEquals(CircuitBreaker.State.CLOSED, loser.getCircuitBreaker().getState());
+        assertEquals(1, meterRegistry.get(LlmMetrics.REQUESTS)
+                .tags("provider", "stuck", "outcome", "cancelled").timer().count());
+    }
+
+    @Test
+    void testFailsOverWhenThePrimaryFailsFast() {
+        RoutingFlashcardGenerator router = new RoutingFlashcardGenerator();
+        FlashcardGeneratorRegistry registry = registry(router, "routing",
+                provider("broken", "broken-model", () -> { throw new IllegalStateException("down"); }),
+                provider("backup", "backup-model", () -> cards("backup")));
+        configure(router, registry, true, 20, 10000);
+
+        FlashcardGenerator.Result result = router.generate("text");
+
+        assertEquals("backup-model", result.model());
+        assertEquals(1, registry.managed("broken").getMetrics().getErrors());
+        assertEquals(1L, router.getStats().get("hedges_fired"));
+    }
+
+    @Test
+    void testFailsWhenEveryProviderFails() {
+        RoutingFlashcardGenerator router = new RoutingFlashcardGenerator();
+        FlashcardGeneratorRegistry registry = registry(router, "routing",
+                provider("first", "model-a", () -> { throw new IllegalStateException("first down"); }),
+                provider("second", "model-b", () -> { throw new IllegalStateException("second down"); }));
+        configure(router, registry, true, 20, 10000);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> router.generate("text"));
+        assertEquals("first down", e.getMessage());
+    }
+
+    @Test
+    void testKeepsWaitingForThePrimaryWhenTheHedgeIsRejected() {
+        RoutingFlashcardGenerator router = new RoutingFlashcardGenerator();
+        FlashcardGeneratorRegistry registry = registry(router, "routing",
+                provider("slow", "slow-model", () -> { sleep(200); return cards("slow"); }),
+                provider("backup", "backup-model", () -> cards("backup")));
+        configure(router, registry, true, 20, 20);
+        // A saturated pool: room for the primary call only
+        AtomicInteger submitted = new AtomicInteger();
+        ReflectionTestUtils.setField(router, "hedgeExecutor", (TaskExecutor) task -> {
+            if (submitted.incrementAndGet() > 1) {
+                throw new TaskRejectedException("hedge pool is full");
+            }
+            hedgeExecutor.execute(task);
+        });
+
+        FlashcardGenerator.Result result = router.generate("text");
+
+        assertEquals("slow-model", result.model());
+        assertEquals(0L, router.getStats().get("hedges_fired"));
+        assertEquals(1L, router.getStats().get("hedges_rejected"));
+        assertEquals(1, registry.managed("slow").getMetrics().getCalls());
+        assertEquals(0, registry.managed("slow").getMetrics().getErrors());
+    }
+
+    @Test
+    void testHedgeDelayStartsWhenThePrimaryStarts() {
+        RoutingFlashcardGenerator router = new RoutingFlashcardGenerator();
+        FlashcardGeneratorRegistry registry = registry(router, "routing",
+                provider("first", "model-a", () -> { sleep(300); return cards("A"); }),
+                provider("second", "model-b", () -> cards("B")));
+        configure(router, registry, true, 20, 500);
+        ExecutorService singleThread = Executors.newSingleThreadExecutor();
+        ReflectionTestUtils.setField(router, "hedgeExecutor", (TaskExecutor) singleThread::execute);
+        try {
+            // The primary starts after 300 ms in the queue and answers 300 ms later,
+            // within the hedge delay measured from its start
+            singleThread.execute(() -> sleep(300));
+
+            FlashcardGenerator.Result result = router.generate("text");
+
+            assertEquals("model-a", result.model());
+            assertEquals(0L, router.getStats().get("hedges_fired"));
+            assertEquals(0L, router.getStats().get("primary_queue_timeouts"));
+        } finally {
+            singleThread.shutdownNow();
+        }
+    }
+
+    @Test
+    void testPrimaryStuckInTheQueueRunsOnTheCallingThread() throws Exception {
+        Thread caller = Thread.currentThread();
+        AtomicInteger executorCalls = new AtomicInteger();
+        RoutingFlashcardGenerator router = new RoutingFlashcardGenerator();
+        FlashcardGeneratorRegistry registry = registry(router, "routing",
+                provider("first", "model-a", () -> {
+                    if (Thread.currentThread() != caller) {
+                        executorCalls.incrementAndGet();
+                    }
+                    return cards("A");
+                }),
+                provider("second", "model-b", () -> cards("B")));
+        configure(router, registry, true, 20, 100);
+        ExecutorService singleThread = Executors.newSingleThreadExecutor();
+        ReflectionTestUtils.setField(router, "hedgeExecutor", (TaskExecutor) singleThread::execute);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            singleThread.execute(() -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            long start = System.nanoTime();
+            FlashcardGenerator.Result result = router.generate("text");
+
+            assertEquals("model-a", result.model());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+            assertEquals(1L, router.getStats().get("primary_queue_timeouts"));
+            assertEquals(0L, router.getStats().get("hedges_fired"));
+
+            // The taken-over task never calls the provider once the executor gets to it
+            release.countDown();
+            singleThread.shutdown();
+            assertTrue(singleThread.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(0, executorCalls.get());
+            assertEquals(1, registry.managed("first").getMetrics().getCalls());
+        } finally {
+            singleThread.shutdownNow();
+        }
+    }
+
+    private FlashcardGeneratorRegistry registry(RoutingFlashcardGenerator router, String active, FlashcardGenerator... providers) {
+        List<FlashcardGenerator> all = new ArrayList<>(List.of(providers));
+        all.add(router);
+        FlashcardGeneratorRegistry registry = new FlashcardGeneratorRegistry();
+        ReflectionTestUtils.setField(registry, "providers", all);
+        ReflectionTestUtils.setField(registry, "llmMetrics", new LlmMetrics(meterRegistry));
+        ReflectionTestUtils.setField(registry, "activeProvider", active);
+        ReflectionTestUtils.setField(registry, "breakerWindowSize", 20);
+        ReflectionTestUtils.setField(registry, "breakerMinCalls", 10);
+        ReflectionTestUtils.setField(registry, "breakerFailureRateThreshold", 0.5);
+        ReflectionTestUtils.setField(registry, "breakerOpenDurationSeconds", 30L);
+        ReflectionTestUtils.setField(registry, "breakerHalfOpenTrials", 1);
+        ReflectionTestUtils.setField(registry, "limiterMinLimit", 1);
+        ReflectionTestUtils.setField(registry, "limiterLatencyThresholdMs", 20000L);
+        ReflectionTestUtils.setField(registry, "limiterBackoffRatio", 0.9);
+        ReflectionTestUtils.setField(registry, "limiterRetryAfterSeconds", 1L);
+        registry.registerProviders();
+        return registry;
+    }
+
+    private void configure(RoutingFlashcardGenerator router, FlashcardGeneratorRegistry registry,
+                           boolean hedging, int minSamples, long defaultHedgeDelayMs) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("registry", registry);
+        List<String> names = registry.getAll().stream().map(FlashcardGenerator::getName).toList();
+        ReflectionTestUtils.setField(router, "registryProvider", beanFactory.getBeanProvider(FlashcardGeneratorRegistry.class));
+        ReflectionTestUtils.setField(router, "hedgeExecutor", (TaskExecutor) hedgeExecutor::execute);
+        ReflectionTestUtils.setField(router, "providerNames", names);
+        ReflectionTestUtils.setField(router, "hedgingEnabled", hedging);
+        ReflectionTestUtils.setField(router, "minSamples", minSamples);
+        ReflectionTestUtils.setField(router, "defaultHedgeDelayMs", defaultHedgeDelayMs);
+        ReflectionTestUtils.setField(router, "minHedgeDelayMs", 10L);
+        ReflectionTestUtils.setField(router, "maxErrorRate", 0.5);
+    }
+
+    private static void awaitIdle(ManagedFlashcardGenerator generator) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (generator.getLimiter().getInFlight() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, generator.getLimiter().getInFlight());
+    }
+
+    private static List<FlashcardProposalDTO> cards(String front) {
+        return List.of(new FlashcardProposalDTO(front, "back"));
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static FlashcardGenerator provider(String name, String model, Supplier<List<FlashcardProposalDTO>> answer) {
+        return new FlashcardGenerator() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getModel() {
+                return model;
+            }
+
+            @Override
+            public List<FlashcardProposalDTO> generateFlashcards(String text) {
+                return answer.get();
+            }
+        };
+    }
+}
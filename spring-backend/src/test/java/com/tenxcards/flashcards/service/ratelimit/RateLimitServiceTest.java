@@ -0,0 +1,57 @@
+package com.tenxcards.flashcards.service.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitServiceTest {
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    private RateLimitService service(boolean enabled) {
+        // 2 generations and 5 other requests per burst, refilled once a minute
+        return new RateLimitService(new InMemoryRateLimitStore(30, 1000), enabled, 2, 1, 5, 1);
+    }
+
+    @Test
+    void testGenerationLimitIsSeparateFromCrud() {
+        RateLimitService service = service(true);
+
+        assertTrue(service.tryAcquire(alice, RateLimitCategory.GENERATION).allowed());
+        assertTrue(service.tryAcquire(alice, RateLimitCategory.GENERATION).allowed());
+        RateLimitService.Decision rejected = service.tryAcquire(alice, RateLimitCategory.GENERATION);
+        assertFalse(rejected.allowed());
+        assertTrue(rejected.retryAfterSeconds() > 0 && rejected.retryAfterSeconds() <= 60);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(service.tryAcquire(alice, RateLimitCategory.CRUD).allowed());
+        }
+        assertFalse(service.tryAcquire(alice, RateLimitCategory.CRUD).allowed());
+
+        assertEquals(2L, service.getStats().get("generation_allowed"));
+        assertEquals(1L, service.getStats().get("generation_rejected"));
+        assertEquals(1L, service.getStats().get("crud_rejected"));
+    }
+
+    @Test
+    void testUsersHaveTheirOwnBuckets() {
+        RateLimitService service = service(true);
+        service.tryAcquire(alice, RateLimitCategory.GENERATION);
+        service.tryAcquire(alice, RateLimitCategory.GENERATION);
+
+        assertFalse(service.tryAcquire(alice, RateLimitCategory.GENERATION).allowed());
+        assertTrue(service.tryAcquire(bob, RateLimitCategory.GENERATION).allowed());
+        assertEquals(2L, service.getStats().get("buckets"));
+    }
+
+    @Test
+    void testDisabledAllowsEverything() {
+        RateLimitService service = service(false);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(service.tryAcquire(alice, RateLimitCategory.GENERATION).allowed());
+        }
+    }
+}
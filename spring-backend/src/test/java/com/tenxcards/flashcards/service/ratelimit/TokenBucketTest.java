@@ -0,0 +1,79 @@
+package com.tenxcards.flashcards.service.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // 3 tokens, one more every second
+    private final TokenBucket.Limit limit = new TokenBucket.Limit(3, 60);
+
+    @Test
+    void testBurstUpToCapacityThenWaitForRefill() {
+        TokenBucket bucket = new TokenBucket(0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(limit, 0));
+        }
+        assertEquals(SECOND, bucket.tryAcquire(limit, 0));
+        assertEquals(SECOND / 2, bucket.tryAcquire(limit, SECOND / 2));
+        assertEquals(0, bucket.available(limit, SECOND / 2));
+
+        assertEquals(0, bucket.tryAcquire(limit, SECOND));
+        assertEquals(SECOND, bucket.tryAcquire(limit, SECOND));
+    }
+
+    @Test
+    void testIdleBucketRefillsOnlyToCapacity() {
+        TokenBucket bucket = new TokenBucket(0);
+        bucket.tryAcquire(limit, 0);
+
+        assertEquals(3, bucket.available(limit, 60 * SECOND));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(limit, 60 * SECOND));
+        }
+        assertTrue(bucket.tryAcquire(limit, 60 * SECOND) > 0);
+    }
+
+    @Test
+    void testConcurrentRequestsTakeExactlyCapacity() throws Exception {
+        TokenBucket.Limit slow = new TokenBucket.Limit(50, 0.001);
+        TokenBucket bucket = new TokenBucket(System.nanoTime());
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    int granted = 0;
+                    for (int i = 0; i < 100; i++) {
+                        if (bucket.tryAcquire(slow, System.nanoTime()) == 0) {
+                            granted++;
+                        }
+                    }
+                    return granted;
+                }));
+            }
+            start.countDown();
+            int granted = 0;
+            for (Future<Integer> result : results) {
+                granted += result.get(5, TimeUnit.SECONDS);
+            }
+            assertEquals(50, granted);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}